@@ -1,5 +1,6 @@
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import maze.*;
 import mazeGenerator.*;
@@ -25,20 +26,327 @@ class MazeTester {
 	 */
 	protected static final PrintStream outStream = System.out;
 
+	/**
+	 * Sink for the output of solvers and validation in batch mode.
+	 */
+	protected static final PrintStream nullStream = new PrintStream(OutputStream.nullOutputStream());
+
+	/**
+	 * Maze types accepted in input files.
+	 */
+	protected static final List<String> mazeTypes = Arrays.asList("normal", "tunnel", "hex");
+
+	/**
+	 * Number of tiles along each side of the maze for tiled=<name> generators.
+	 */
+	protected static final int TILES_PER_SIDE = 4;
+
 	/**
 	 * Print help/usage message.
 	 */
 	public static void usage(String progName) {
 		System.err.println(progName + ": [input fileName] <visualize maze>");
 		System.err.println("<visualize maze> = <y | n>");
+		System.err.println(progName + ": -batch [manifest fileName] <number of threads>");
+		System.err.println("each manifest line is an input fileName or a whole input file on one line");
 		System.exit(1);
 	} // end of usage()
 
+	/**
+	 * Create the maze generator of the given name.
+	 * growingTree may carry its selection policy, e.g. growingTree=newest:75,random:25,
+	 * and tiled=<name> runs generator <name> on TILES_PER_SIDE x TILES_PER_SIDE tiles in parallel.
+	 * @param name Name of the generator in the input file.
+	 * @param seed Seed which fully determines the generated maze.
+	 * @return The generator, or null if the name is unknown.
+	 */
+	protected static MazeGenerator createGenerator(String name, long seed) {
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		if (name.startsWith("tiled=")) {
+			final String baseName = name.substring("tiled=".length());
+			if (createGenerator(baseName, seed) == null)
+				return null;
+			return new TiledGenerator(tileSeed -> createGenerator(baseName, tileSeed), TILES_PER_SIDE, seed, numThreads);
+		}
+		if (name.startsWith("growingTree="))
+			return new GrowingTreeGenerator(name.substring("growingTree=".length()), seed);
+
+		switch (name) {
+		case "modiPrim":
+			return new ModifiedPrimsGenerator(seed);
+		case "recurBack":
+			return new RecursiveBacktrackerGenerator(seed);
+		case "recurDiv":
+			return new RecursiveDivisionGenerator(seed, numThreads);
+		case "ellers":
+			return new EllersGenerator(seed);
+		case "kruskal":
+			return new KruskalGenerator(seed);
+		case "growingTree":
+			return new GrowingTreeGenerator(GrowingTreeGenerator.DEFAULT_POLICY, seed);
+		default:
+			return null;
+		}
+	} // end of createGenerator()
+
+	/**
+	 * Create the maze solver of the given name.
+	 * @param name Name of the solver in the input file.
+	 * @param seed Seed of the solvers making random choices.
+	 * @return The solver, or null for "none".
+	 * @throws IllegalArgumentException if the name is unknown.
+	 */
+	protected static MazeSolver createSolver(String name, long seed) {
+		switch (name) {
+		case "wallFollower":
+			return new WallFollowerSolver();
+		case "biDirrecurBack":
+			return new BiDirectionalRecursiveBacktrackerSolver(seed);
+		case "bfs":
+			return new BfsSolver();
+		case "aStar":
+			return new AStarSolver();
+		case "biBfs":
+			return new BiDirectionalBfsSolver();
+		case "deadEnd":
+			return new DeadEndFillingSolver();
+		case "corridor":
+			return new CorridorSolver();
+		case "hierarchical":
+			return new HierarchicalSolver();
+		case "portfolio":
+			return new PortfolioSolver();
+		// sample solver to help you get started
+		case "sample":
+			return new SampleSolver();
+		// no solver
+		case "none":
+			return null;
+		default:
+			throw new IllegalArgumentException("Unknown maze solver name.");
+		}
+	} // end of createSolver()
+
+	/**
+	 * Parameters of one maze, as given in an input file.
+	 * Besides tunnels, the end of the file may hold "seed <number>"; the same seed always
+	 * produces the same maze and solution. Without it a random seed is used.
+	 */
+	protected static class Parameters {
+		// default values for parameters 
+		String mazeType = "normal";
+		String mazeGeneratorName = "recurBack";
+		String mazeSolverName = "wallFollower";
+		int rowNum = 30;
+		int colNum = 30;
+		int entR = 0;
+		int entC = 0;
+		int exitR = 0;
+		int exitC = 1;
+		List<int[]> tunnelList = new ArrayList<int[]>();
+		long seed = new SplittableRandom().nextLong();
+
+		/**
+		 * Read the parameters of an input file.
+		 * @param scanner Scanner over the content of the input file, closed when done.
+		 */
+		static Parameters read(Scanner scanner) {
+			Parameters params = new Parameters();
+			params.mazeType = scanner.next();
+			
+			params.mazeGeneratorName = scanner.next();
+			params.mazeSolverName = scanner.next();
+			
+			params.rowNum = Integer.parseInt(scanner.next());
+			params.colNum = Integer.parseInt(scanner.next());
+			
+			params.entR = Integer.parseInt(scanner.next());
+			params.entC = Integer.parseInt(scanner.next());
+			params.exitR = Integer.parseInt(scanner.next());
+			params.exitC = Integer.parseInt(scanner.next());
+
+			// add tunnels and seed
+			while (scanner.hasNext()) {
+				String token = scanner.next();
+				if (token.equals("seed")) {
+					params.seed = Long.parseLong(scanner.next());
+					continue;
+				}
+				int temp[]= {Integer.parseInt(token), Integer.parseInt(scanner.next()), Integer.parseInt(scanner.next()), Integer.parseInt(scanner.next())};
+				params.tunnelList.add(temp);
+			}
+			scanner.close();
+			return params;
+		} // end of read()
+
+		/**
+		 * Seeds of the generator and the solver, both drawn from the one random source of the run.
+		 */
+		long[] runSeeds() {
+			SplittableRandom random = new SplittableRandom(seed);
+			return new long[] { random.nextLong(), random.nextLong() };
+		} // end of runSeeds()
+
+		/**
+		 * Construct and initialise the all-wall maze described by the parameters.
+		 * @throws IllegalArgumentException if the parameters do not describe a valid maze.
+		 */
+		Maze createMaze() {
+			// check rowNum and colNum
+			if (rowNum < 1 || colNum < 1)
+				throw new IllegalArgumentException("Row or column number of maze must be at least 1.");
+
+			// construct maze object 
+			Maze maze = null;
+			switch (mazeType) {
+			case "normal":
+				maze = new NormalMaze();
+				break;
+			case "tunnel":
+				maze = new TunnelMaze();
+				break;
+			case "hex":
+				maze = new HexMaze();
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown maze type.");
+			}
+			
+			// initialise maze
+			maze.initMaze(rowNum, colNum, entR, entC, exitR, exitC, tunnelList);
+
+			// check if maze entrance or exit is valid
+			if (!maze.isOnEdge(entR, entC) || !maze.isOnEdge(exitR, exitC))
+				throw new IllegalArgumentException("Incorrect maze entrance or exit position.");
+			return maze;
+		} // end of createMaze()
+	} // end of class Parameters
+
+	/**
+	 * Validate the solution of a solved maze, without showing it. The path of a PathSolver
+	 * is checked directly; otherwise the foot prints are searched.
+	 * @param maze Maze that was solved.
+	 * @param mazeSolver Solver that solved it.
+	 * @return Result of the validator of this thread, overwritten by its next validation.
+	 */
+	protected static Validator.Result validate(Maze maze, MazeSolver mazeSolver) {
+		if (mazeSolver instanceof PathSolver && ((PathSolver) mazeSolver).path() != null)
+			return Validator.local().validate(maze, ((PathSolver) mazeSolver).path());
+		return maze.validateResult();
+	} // end of validate()
+
+	/**
+	 * Generate, check, solve and validate the maze of one manifest entry.
+	 * @param entry Input fileName, or the content of an input file on one line.
+	 * @return Result line of the maze.
+	 */
+	protected static String runBatchEntry(String entry) {
+		long start = System.nanoTime();
+		StringBuilder result = new StringBuilder(entry);
+		try {
+			Scanner scanner = mazeTypes.contains(entry.split("\\s+")[0]) ? new Scanner(entry) : new Scanner(new File(entry));
+			Parameters params = Parameters.read(scanner);
+			result.append(" seed=").append(params.seed);
+			Maze maze = params.createMaze();
+			long[] seeds = params.runSeeds();
+			MazeGenerator mazeGen = createGenerator(params.mazeGeneratorName, seeds[0]);
+			if (mazeGen == null)
+				throw new IllegalArgumentException("Unknown maze generator name.");
+			MazeSolver mazeSolver = createSolver(params.mazeSolverName, seeds[1]);
+
+			mazeGen.generateMaze(maze);
+			maze.isVisu = false;
+			boolean isPerfectMaze = maze.isPerfect();
+			result.append(" perfect=").append(isPerfectMaze);
+			if (isPerfectMaze && mazeSolver != null) {
+				mazeSolver.solveMaze(maze);
+				result.append(" solved=").append(mazeSolver.isSolved());
+				result.append(" explored=").append(mazeSolver.cellsExplored());
+				if (mazeSolver instanceof PortfolioSolver && mazeSolver.isSolved()) {
+					PortfolioSolver portfolio = (PortfolioSolver) mazeSolver;
+					result.append(" winner=").append(portfolio.winner().getClass().getSimpleName());
+					result.append(" winnerTime=").append(Math.round(portfolio.winnerTime())).append("ms");
+				}
+				if (mazeSolver.isSolved()) {
+					Validator.Result validation = validate(maze, mazeSolver);
+					result.append(" valid=").append(validation.valid);
+					result.append(" pathLength=").append(validation.pathLength);
+				}
+			}
+		} catch (FileNotFoundException e) {
+			result.append(" error=Input file doesn't exist.");
+		} catch (Throwable e) {
+			// Errors too, such as a solver overflowing the stack, so the line still names its entry
+			result.append(" error=").append(e.getMessage() != null ? e.getMessage() : e.toString());
+		}
+		result.append(" time=").append((System.nanoTime() - start) / 1000000).append("ms");
+		return result.toString();
+	} // end of runBatchEntry()
+
+	/**
+	 * Run every entry of a manifest on a fixed pool of threads, one maze per task,
+	 * and print one result line per entry in manifest order.
+	 * Anything solvers and validation print is discarded.
+	 * @param manifest Name of the manifest file.
+	 * @param numThreads Number of worker threads.
+	 */
+	protected static void runBatch(String manifest, int numThreads) throws IOException, InterruptedException {
+		List<String> entries = new ArrayList<String>();
+		try (BufferedReader reader = new BufferedReader(new FileReader(manifest))) {
+			String line;
+			while ((line = reader.readLine()) != null)
+				if (!line.trim().isEmpty())
+					entries.add(line.trim());
+		}
+
+		long start = System.nanoTime();
+		PrintStream stdout = System.out;
+		System.setOut(nullStream);
+		ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (final String entry : entries)
+				results.add(pool.submit(() -> runBatchEntry(entry)));
+			for (int i = 0; i < results.size(); i++) {
+				try {
+					outStream.println(results.get(i).get());
+				} catch (ExecutionException e) {
+					outStream.println(entries.get(i) + " error=" + e.getCause());
+				}
+			}
+		} finally {
+			pool.shutdown();
+			System.setOut(stdout);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		outStream.printf("%d mazes in %.3f s (%.1f mazes/s) on %d threads%n", entries.size(), seconds, entries.size() / seconds, numThreads);
+	} // end of runBatch()
+
 	/**
 	 * Main function of tester.
-	 * @param args Two arguments which are input filename and "y/n" indicating whether to visualize the maze. 
+	 * @param args Two arguments which are input filename and "y/n" indicating whether to visualize the maze,
+	 * or "-batch", the manifest filename and optionally the number of threads.
 	 */
 	public static void main(String[] args) {
+		// batch mode
+		if (args.length >= 2 && args.length <= 3 && args[0].equals("-batch")) {
+			try {
+				int numThreads = args.length == 3 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+				if (numThreads < 1)
+					throw new NumberFormatException();
+				runBatch(args[1], numThreads);
+			} catch (NumberFormatException e) {
+				System.err.println("Incorrect number of threads.");
+				usage(progName);
+			} catch (IOException e) {
+				System.err.println("Manifest file can't be read.");
+				usage(progName);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return;
+		}
+
 		// read command line arguments
 		if (args.length != 2) {
 			System.err.println("Incorrect number of arguments.");
@@ -62,94 +370,39 @@ class MazeTester {
 			usage(progName);
 		}
 		
-		// default values for parameters 
-		String mazeType = "normal";
-		String mazeGeneratorName = "recurBack";
-		String mazeSolverName = "wallFollower";
-		int rowNum = 30;
-		int colNum = 30;
-		int entR = 0;
-		int entC = 0;
-		int exitR = 0;
-		int exitC = 1;
-		List<int[]> tunnelList = new ArrayList<int[]>();
-		
 		File fin = new File(fName);
+		Parameters params = null;
 		
 		// read input parameter file
 		try {
-			Scanner scanner = new Scanner(fin);
-			mazeType = scanner.next();
-			
-			mazeGeneratorName = scanner.next();
-			mazeSolverName = scanner.next();
-			
-			rowNum = Integer.parseInt(scanner.next());
-			colNum = Integer.parseInt(scanner.next());
-			
-			entR = Integer.parseInt(scanner.next());
-			entC = Integer.parseInt(scanner.next());
-			exitR = Integer.parseInt(scanner.next());
-			exitC = Integer.parseInt(scanner.next());
-
-			// add tunnels
-			while (scanner.hasNext()) {
-				int temp[]= {Integer.parseInt(scanner.next()), Integer.parseInt(scanner.next()), Integer.parseInt(scanner.next()), Integer.parseInt(scanner.next())};
-				tunnelList.add(temp);
-			}
-			scanner.close();
+			params = Parameters.read(new Scanner(fin));
 		} catch (FileNotFoundException e) {
 			System.err.println("Input file doesn't exist.");
 			usage(progName);
 		}
 
-
-                // check rowNum and colNum
-                if (rowNum < 1 || colNum < 1) {
-                        System.err.println("Row or column number of maze must be at least 1.");
-                        usage(progName);
-                }
-
-		
-		// construct maze object 
+		// construct and initialise maze object 
 		Maze maze = null;
-		switch (mazeType) {
-		case "normal":
-			maze = new NormalMaze();
-			break;
-		case "tunnel":
-			maze = new TunnelMaze();
-			break;
-		case "hex":
-			maze = new HexMaze();
-			break;
-		default:
-			System.err.println("Unknown maze type.");
+		try {
+			maze = params.createMaze();
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
 			usage(progName);
 		}
 		
-		// initialise maze
-		maze.initMaze(rowNum, colNum, entR, entC, exitR, exitC, tunnelList);
+		// one seed per run, printed so that the run can be repeated
+		outStream.println("Seed = " + params.seed);
+		long[] seeds = params.runSeeds();
 
-		// check if maze entrance or exit is valid
-		if (!maze.isOnEdge(entR, entC) || !maze.isOnEdge(exitR, exitC)) {
-			System.err.println("Incorrect maze entrance or exit position.");
-			usage(progName);
-		}
-		
 		// determine which implementation to test
 		MazeGenerator mazeGen = null;
-		switch (mazeGeneratorName) {
-		case "modiPrim":
-			mazeGen = new ModifiedPrimsGenerator();
-			break;
-		case "recurBack":
-			mazeGen = new RecursiveBacktrackerGenerator();
-			break;
-		case "growingTree":
-			mazeGen = new GrowingTreeGenerator();
-			break;
-		default:
+		try {
+			mazeGen = createGenerator(params.mazeGeneratorName, seeds[0]);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			usage(progName);
+		}
+		if (mazeGen == null) {
 			System.err.println("Unknown maze generator name.");
 			usage(progName);
 		}
@@ -162,8 +415,8 @@ class MazeTester {
 		// update whether maze should be visualised
 		maze.isVisu = isVisu;
 
-		// check if maze is perfect
-		boolean isPerfectMaze = maze.isPerfect();
+		// check if maze is perfect, on every core when there are several
+		boolean isPerfectMaze = ForkJoinPool.getCommonPoolParallelism() > 1 ? maze.isPerfectParallel() : maze.isPerfect();
 		
 		outStream.println("The maze is " + (isPerfectMaze ? "" : "not ") + "perfect!");
 		
@@ -173,22 +426,10 @@ class MazeTester {
 		// solve the generateed maze if perfect
 		if (isPerfectMaze) {
 			MazeSolver mazeSolver = null;
-			switch (mazeSolverName) {
-			case "wallFollower":
-				mazeSolver = new WallFollowerSolver();
-				break;
-			case "biDirrecurBack":
-				mazeSolver = new BiDirectionalRecursiveBacktrackerSolver();
-				break;
-            // sample solver to help you get started
-            case "sample":
-                mazeSolver = new SampleSolver();
-                break;
-			// no solver
-			case "none":
-				break;
-			default:
-				System.err.println("Unknown maze solver name.");
+			try {
+				mazeSolver = createSolver(params.mazeSolverName, seeds[1]);
+			} catch (IllegalArgumentException e) {
+				System.err.println(e.getMessage());
 				usage(progName);
 			}
 
@@ -200,9 +441,15 @@ class MazeTester {
 					outStream.println("The maze has been solved!");
 					// display number of cells visited for solver
 					outStream.println("Number of cells visited = " + mazeSolver.cellsExplored());
+					if (mazeSolver instanceof PortfolioSolver) {
+						PortfolioSolver portfolio = (PortfolioSolver) mazeSolver;
+						outStream.printf("%s won the race in %.1f ms.%n", portfolio.winner().getClass().getSimpleName(), portfolio.winnerTime());
+					}
 					// show results from validation
 					outStream.println("Validation result:");
-					boolean isValid = maze.validate();
+					Validator.Result validation = validate(maze, mazeSolver);
+					validation.print();
+					boolean isValid = validation.valid;
 					outStream.println("The solution is " + (isValid ? "" : "not ") + "valid!");
 				} else {
 					outStream.println("Solver was failed!");
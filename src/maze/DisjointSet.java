@@ -0,0 +1,94 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * Disjoint set (union-find) over the integers [0, size), stored in flat arrays,
+ * with union by rank and path halving.
+ */
+public class DisjointSet {
+	/**
+	 * parent[i] is the parent of i, roots are their own parent
+	 */
+	protected final int parent[];
+
+	/**
+	 * upper bound of the height of the tree below each root
+	 */
+	protected final byte rank[];
+
+	/**
+	 * number of disjoint sets
+	 */
+	protected int count;
+
+
+	/**
+	 * Construct size singleton sets.
+	 * @param size Number of elements.
+	 */
+	public DisjointSet(int size) {
+		parent = new int[size];
+		rank = new byte[size];
+		for (int i = 0; i < size; i++)
+			parent[i] = i;
+		count = size;
+	} // end of DisjointSet()
+
+
+	/**
+	 * Make every element a singleton set again, so the arrays can be reused.
+	 */
+	public void reset() {
+		for (int i = 0; i < parent.length; i++)
+			parent[i] = i;
+		Arrays.fill(rank, (byte) 0);
+		count = parent.length;
+	} // end of reset()
+
+
+	/**
+	 * Find the representative of the set containing x.
+	 * Every node on the way points to its grandparent afterwards.
+	 * @param x Element.
+	 * @return Root of the set of x.
+	 */
+	public int find(int x) {
+		while (parent[x] != x) {
+			parent[x] = parent[parent[x]];
+			x = parent[x];
+		}
+		return x;
+	} // end of find()
+
+
+	/**
+	 * Merge the sets containing x and y.
+	 * @return True if they were different sets. Otherwise false.
+	 */
+	public boolean union(int x, int y) {
+		x = find(x);
+		y = find(y);
+		if (x == y)
+			return false;
+		if (rank[x] < rank[y]) {
+			int t = x;
+			x = y;
+			y = t;
+		}
+		parent[y] = x;
+		if (rank[x] == rank[y])
+			rank[x]++;
+		count--;
+		return true;
+	} // end of union()
+
+
+	/**
+	 * Number of disjoint sets.
+	 */
+	public int count() {
+		return count;
+	} // end of count()
+
+} // end of class DisjointSet
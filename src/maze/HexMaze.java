@@ -1,6 +1,6 @@
 package maze;
 
-import java.util.*;
+import java.util.List;
 
 import maze.StdDraw;
 
@@ -39,12 +39,11 @@ public class HexMaze extends NormalMaze {
 		sizeC = cs;
 		sizeTunnel = tunnelList.size();
 		
-		// set up map matrix
+		// set up map matrix; every row is as wide as the last one, so map[r][c] is null
+		// rather than out of bounds for any c in [0, sizeC + (sizeR + 1) / 2) outside row r
 		map = new Cell[sizeR][sizeC + (sizeR + 1) / 2];
 		for (int i = 0; i < sizeR; i++){
-			for (int j = (i + 1) / 2; j < sizeC + (i + 1) / 2; j++) {
-				if (!isIn(i, j))
-					continue;
+			for (int j = colOffset(i); j < sizeC + colOffset(i); j++) {
 				Cell cell = new Cell(i, j);
 				map[i][j] = cell;
 				for (int k = 0; k < 3; k++) {
@@ -64,50 +63,19 @@ public class HexMaze extends NormalMaze {
 		}
 		
 		// set up entrance and exit
-		if (isIn(entR, entC + (entR + 1) / 2))
-			entrance = map[entR][entC + (entR + 1) / 2];
-		if (isIn(exitR, exitC + (exitR + 1) / 2))
-			exit = map[exitR][exitC + (exitR + 1) / 2];
+		if (isIn(entR, entC + colOffset(entR)))
+			entrance = map[entR][entC + colOffset(entR)];
+		if (isIn(exitR, exitC + colOffset(exitR)))
+			exit = map[exitR][exitC + colOffset(exitR)];
 
-                // set up recording matrix for validation
-                isRecorded = new boolean[sizeR][sizeC + (sizeR + 1) / 2];
+                // set up recording bitset for validation
+                isRecorded = new long[PackedMaze.words(numCells())];
+
+		// set up neighbour and wall index tables
+		buildTables();
 	} // end of initMaze()
 	
 	
-	@Override
-	public boolean isPerfect() {
-		boolean visited[][] = new boolean[sizeR][sizeC];
-		Queue<Cell> queue = new LinkedList<Cell>();
-		
-		queue.add(entrance);
-		
-		while (!queue.isEmpty()) {
-			Cell currCell = queue.poll();
-			visited[currCell.r][currCell.c - (currCell.r + 1) / 2] = true;
-			int visitedNeigh = 0;
-			for (int i = 0; i < NUM_DIR; i++) {
-				Cell nextCell = currCell.neigh[i];
-				if (!isIn(nextCell) || currCell.wall[i].present)
-					continue;
-				if (visited[nextCell.r][nextCell.c - (nextCell.r + 1) / 2])
-					visitedNeigh += 1; 
-				else
-					queue.add(nextCell);
-			}
-			
-			if (visitedNeigh > 1)
-				return false;
-		}
-		
-		for (int i = 0; i < sizeR; i++)
-			for (int j = 0; j < sizeC; j++)
-				if (!visited[i][j])
-					return false;
-		
-		return true;
-	} // end of isPerfect()
-	
-	
 	@Override
 	public void draw() {
 		// draw nothing if visualization is switched off
@@ -176,7 +144,7 @@ public class HexMaze extends NormalMaze {
 	@Override
 	public void drawFtPrt(Cell cell) {
                 // record every cell drawn
-                isRecorded[cell.r][cell.c] = true;
+                PackedMaze.setBit(isRecorded, cellId(cell));
 
 		// draw nothing if visualization is switched off
 		if (!isVisu)
@@ -185,58 +153,6 @@ public class HexMaze extends NormalMaze {
 		StdDraw.setPenColor(StdDraw.GRAY);
 		StdDraw.filledCircle(cell.r % 2 * 0.5 + cell.c - (cell.r + 1) / 2 + 0.5, cell.r + 0.5, 0.25);
 	} // end of drawFtPrt()
-	
-
-        @Override
-        public boolean validate() {
-                boolean isValid = true;
-                int pathLength = 0;
-                int count = 0;
-
-                int stepCount[][] = new int[sizeR][sizeC + (sizeR + 1) / 2];
-                Queue<Cell> queue = new LinkedList<Cell>();
-
-                queue.add(entrance);
-                stepCount[entrance.r][entrance.c] = 1;
-
-                while (!queue.isEmpty()) {
-                        Cell cell = queue.poll();
-                        count++;
-                        int step = stepCount[cell.r][cell.c];
-
-                        for (int i = 0; i < Maze.NUM_DIR; i++) {
-                                Cell next = cell.neigh[i];
-                                if (next != null && !cell.wall[i].present && isRecorded[next.r][next.c] && stepCount[next.r][next.c] == 0) {
-                                        stepCount[next.r][next.c] = step + 1;
-                                        queue.add(next);
-                                }
-                        }
-                }
-
-                if (stepCount[exit.r][exit.c] == 0) {
-                        isValid = false;
-                        System.out.println("[Validation] Exit is not reached.");
-                }
-                else {
-                        pathLength = stepCount[exit.r][exit.c];
-                }
-
-                for (int i = 0; i < sizeR; i++){
-                        for (int j = 0; j < sizeC + (sizeR + 1) / 2; j++) {
-                                if (isValid && isRecorded[i][j] && stepCount[i][j] == 0) {
-                                        isValid = false;
-                                        System.out.println("[Validation] Visited cell not reachable.");
-                                }
-                        }
-                }
-
-                if (isValid) {
-                        System.out.println("[Validation] Number of cells visited = " + count);
-                        System.out.println("[Validation] Path length of the solution = " + pathLength);
-                }
-
-                return isValid;
-        } // end of validate()
 
 
 } // end of class HexMaze
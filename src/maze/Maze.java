@@ -1,5 +1,6 @@
 package maze;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -15,7 +16,7 @@ import java.util.List;
  * all neighbor cell objects are assigned correctly for each cell, 
  * and same wall object are shared by two cell objects next to the wall
  */
-public abstract class Maze {
+public abstract class Maze implements MazeGraph {
 	
 	/**
 	 * constants which are common to any type of mazes
@@ -39,6 +40,9 @@ public abstract class Maze {
 	public final static int deltaR[] = { 0, 1, 1, 0, -1, -1 };
 	public final static int deltaC[] = { 1, 1, 0, -1, -1, 0 };
 	public final static int oppoDir[] = { 3, 4, 5, 0, 1, 2 };
+	// sides of a cell in the neighbour and wall index tables: the NUM_DIR directions, then its tunnel
+	public final static int TUNNEL_SIDE = NUM_DIR;
+	public final static int NUM_SIDES = NUM_DIR + 1;
 		
 	/**
 	 * maze properties
@@ -52,6 +56,17 @@ public abstract class Maze {
 	public Cell exit;
 	public boolean isVisu = true;
 	
+	/**
+	 * Flat tables built once by initMaze(), indexed by id * NUM_SIDES + side.
+	 * neighbour holds the id of the cell on that side, or -1 if there is none, its last
+	 * slot being the other end of the tunnel. wallIndex holds the index in walls[] of the
+	 * wall on that side, the same for both cells sharing it, or -1 for the tunnel slot and
+	 * the directions the maze type does not use.
+	 */
+	protected int neighbour[] = new int[0];
+	protected int wallIndex[] = new int[0];
+	protected Wall walls[] = new Wall[0];
+	
 	/**
 	 * To test whether the input entrance and exit locations are valid.
 	 * @param r Row of a cell.
@@ -60,6 +75,153 @@ public abstract class Maze {
 	 */
 	public abstract boolean isOnEdge(int r, int c);
 	
+	/**
+	 * Number of cells in the maze.
+	 * @return sizeR * sizeC.
+	 */
+	public int numCells() {
+		return sizeR * sizeC;
+	} // end of numCells()
+	
+	/**
+	 * Dense index of a cell, in the range [0, numCells()).
+	 * @param cell Cell of the maze.
+	 * @return Cell id, row major with the hexagon row offset removed.
+	 */
+	public int cellId(Cell cell) {
+		return cellId(cell.r, cell.c);
+	} // end of cellId()
+	
+	/**
+	 * Dense index of the cell at map[r][c]. For hexagon mazes (r, c) are axial coordinates,
+	 * c growing by one along EAST and along NORTHEAST, and this is their bijection with the
+	 * contiguous ids; column() is its inverse.
+	 * @param r Row of a cell.
+	 * @param c Column of the cell in map[r][].
+	 * @return Cell id, row major with the hexagon row offset removed.
+	 */
+	public int cellId(int r, int c) {
+		return r * sizeC + c - colOffset(r);
+	} // end of cellId()
+	
+	/**
+	 * Inverse of cellId(Cell).
+	 * @param id Cell id in the range [0, numCells()).
+	 * @return Cell object stored in map[][] for that id.
+	 */
+	public Cell cellAt(int id) {
+		return map[id / sizeC][column(id)];
+	} // end of cellAt()
+	
+	public int mazeType() {
+		return type;
+	} // end of mazeType()
+	
+	public int rows() {
+		return sizeR;
+	} // end of rows()
+	
+	public int cols() {
+		return sizeC;
+	} // end of cols()
+	
+	public int entranceId() {
+		return cellId(entrance);
+	} // end of entranceId()
+	
+	public int exitId() {
+		return cellId(exit);
+	} // end of exitId()
+	
+	public int[] directions() {
+		return type == HEX ? hexDir : squareDir;
+	} // end of directions()
+	
+	public int passage(int id, int dir) {
+		int side = id * NUM_SIDES + dir;
+		int next = neighbour[side];
+		return next < 0 || walls[wallIndex[side]].present ? -1 : next;
+	} // end of passage()
+	
+	public int tunnelTo(int id) {
+		return neighbour[id * NUM_SIDES + TUNNEL_SIDE];
+	} // end of tunnelTo()
+	
+	/**
+	 * Neighbour of a cell, from the table built by initMaze().
+	 * @param id Cell id.
+	 * @param side Direction, or TUNNEL_SIDE for the other end of the tunnel.
+	 * @return Id of the neighbour on that side, whatever the wall, or -1 if there is none.
+	 */
+	public int neighbour(int id, int side) {
+		return neighbour[id * NUM_SIDES + side];
+	} // end of neighbour()
+	
+	/**
+	 * Index of a wall, from the table built by initMaze().
+	 * @param id Cell id.
+	 * @param dir Direction of the wall.
+	 * @return Index of the wall for wall(int), shared by the two cells next to it, or -1 if the maze type does not use dir.
+	 */
+	public int wallIndex(int id, int dir) {
+		return wallIndex[id * NUM_SIDES + dir];
+	} // end of wallIndex()
+	
+	/**
+	 * @param index Wall index, as returned by wallIndex().
+	 * @return The wall object, the one referenced by the cells next to it.
+	 */
+	public Wall wall(int index) {
+		return walls[index];
+	} // end of wall()
+	
+	/**
+	 * @return Number of walls, border walls included; indices are in the range [0, numWalls()).
+	 */
+	public int numWalls() {
+		return walls.length;
+	} // end of numWalls()
+	
+	/**
+	 * Build the neighbour and wall index tables from map[][], once every cell, wall and
+	 * tunnel is in place. Walls are numbered in the order of the first cell found next to them.
+	 */
+	protected void buildTables() {
+		/** Local Variable Initialisation **/
+		int numCells = numCells();
+		int[] directions = directions();
+		neighbour = new int[numCells * NUM_SIDES];
+		wallIndex = new int[numCells * NUM_SIDES];
+		Arrays.fill(neighbour, -1);
+		Arrays.fill(wallIndex, -1);
+		Wall[] found = new Wall[numCells * directions.length];
+		int numWalls = 0;
+		/** Implementation **/
+		for (int id = 0; id < numCells; id++) {
+			Cell cell = cellAt(id);
+			for (int dir : directions) {
+				int side = id * NUM_SIDES + dir;
+				Cell next = cell.neigh[dir];
+				if (next != null)
+					neighbour[side] = cellId(next);
+				// A wall shared with an earlier cell already has its index
+				if (next != null && neighbour[side] < id) {
+					wallIndex[side] = wallIndex[neighbour[side] * NUM_SIDES + oppoDir[dir]];
+				} else {
+					wallIndex[side] = numWalls;
+					found[numWalls++] = cell.wall[dir];
+				}
+			}
+			if (cell.tunnelTo != null)
+				neighbour[id * NUM_SIDES + TUNNEL_SIDE] = cellId(cell.tunnelTo);
+		}
+		walls = Arrays.copyOf(found, numWalls);
+	} // end of buildTables()
+	
+	public void drawFtPrt(int id) {
+		drawFtPrt(cellAt(id));
+	} // end of drawFtPrt()
+	
 	/**
 	 * Initialize the basic structure of an all-wall maze.
 	 * @param rs Number of rows to build. 
@@ -72,12 +234,6 @@ public abstract class Maze {
 	 */
 	public abstract void initMaze(int rs, int cs, int entR, int entC, int exitR, int exitC, List<int[]> tunnelList);
 
-	/**
-	 * Check whether the maze is a perfect maze
-	 * @return true if it is perfect maze, i.e. every cell can be visited and there is no loop.
-	 */
-	public abstract boolean isPerfect();
-	
 	/**
 	 * Function to draw the maze in a window.
 	 */
@@ -95,4 +251,10 @@ public abstract class Maze {
          */
         public abstract boolean validate();
 
+        /**
+         * Same check as validate(), returned instead of shown.
+         * @return Result of the shared validator of this thread, overwritten by its next validation.
+         */
+        public abstract Validator.Result validateResult();
+
 }
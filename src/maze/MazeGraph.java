@@ -0,0 +1,227 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only view of a maze as a graph over dense cell ids, shared by Maze and
+ * PackedMaze so that a solver written once against it works on both.
+ * Ids are the ones of Maze.cellId(): row major, without the hexagon row offset,
+ * so cell id sits at row id / cols() and column id % cols() of its row.
+ */
+public interface MazeGraph {
+
+	/**
+	 * Directions that can be used for each maze type.
+	 */
+	int squareDir[] = { Maze.EAST, Maze.NORTH, Maze.WEST, Maze.SOUTH };
+	int hexDir[] = { Maze.EAST, Maze.NORTHEAST, Maze.NORTHWEST, Maze.WEST, Maze.SOUTHWEST, Maze.SOUTHEAST };
+
+	/**
+	 * @return Maze.NORMAL, Maze.TUNNEL or Maze.HEX.
+	 */
+	int mazeType();
+
+	/**
+	 * @return Number of rows.
+	 */
+	int rows();
+
+	/**
+	 * @return Number of cells in each row.
+	 */
+	int cols();
+
+	/**
+	 * Column offset of row r in map[][]. Only hexagon mazes shift their rows.
+	 * @param r Row of a cell.
+	 * @return Column of the first cell of row r in map[r][].
+	 */
+	default int colOffset(int r) {
+		return mazeType() == Maze.HEX ? (r + 1) / 2 : 0;
+	} // end of colOffset()
+
+	/**
+	 * Column in map[][] of a cell, its row being id / cols(). Hexagon moves keep the
+	 * Maze.deltaC offsets in these columns.
+	 * @param id Cell id in the range [0, numCells()).
+	 * @return Column of the cell in map[id / cols()][].
+	 */
+	default int column(int id) {
+		int r = id / cols();
+		return id - r * cols() + colOffset(r);
+	} // end of column()
+
+	/**
+	 * @return Number of cells, ids are in the range [0, numCells()).
+	 */
+	int numCells();
+
+	/**
+	 * @return Id of the entrance cell.
+	 */
+	int entranceId();
+
+	/**
+	 * @return Id of the exit cell.
+	 */
+	int exitId();
+
+	/**
+	 * @return Directions used by this maze, either squareDir or hexDir.
+	 */
+	int[] directions();
+
+	/**
+	 * Move through the wall of cell id in direction dir.
+	 * @param id Cell id.
+	 * @param dir Direction of the move.
+	 * @return Id of the neighbour, or -1 if there is no neighbour or the wall is present.
+	 */
+	int passage(int id, int dir);
+
+	/**
+	 * Other end of the tunnel at cell id.
+	 * @return Tunnel end id, or -1 if cell id has no tunnel.
+	 */
+	int tunnelTo(int id);
+
+	/**
+	 * Draw a foot print at cell id, for testing solution.
+	 * @param id Cell id to be drawn.
+	 */
+	void drawFtPrt(int id);
+
+	/**
+	 * Check whether the maze is a perfect maze, i.e. its open walls and tunnels form a
+	 * spanning tree. One pass over the cells adds every open wall and tunnel to a disjoint
+	 * set: an edge joining two cells already connected closes a loop, and a loop free set
+	 * of numCells() - 1 edges connects every cell. Each wall is looked at from one side
+	 * only, the first half of directions(), and each tunnel from its smaller end.
+	 * @return true if it is perfect maze, i.e. every cell can be visited and there is no loop.
+	 */
+	default boolean isPerfect() {
+		int numCells = numCells();
+		int[] directions = directions();
+		int owned = directions.length / 2;
+		DisjointSet sets = new DisjointSet(numCells);
+		long edges = 0;
+		for (int id = 0; id < numCells; id++) {
+			for (int k = 0; k < owned; k++) {
+				int next = passage(id, directions[k]);
+				if (next >= 0) {
+					if (!sets.union(id, next))
+						return false;
+					edges++;
+				}
+			}
+			int next = tunnelTo(id);
+			if (next > id) {
+				if (!sets.union(id, next))
+					return false;
+				edges++;
+			}
+		}
+		return edges == numCells - 1;
+	} // end of isPerfect()
+
+	/**
+	 * Same result as isPerfect(), computed on the common ForkJoinPool. The rows are cut into
+	 * strips and every strip runs the union-find of isPerfect() over its own cells, leaving
+	 * out the walls and tunnels which lead to another strip. Those are merged afterwards,
+	 * joining the components the strips found, and must not close a loop either.
+	 * @return true if it is perfect maze, i.e. every cell can be visited and there is no loop.
+	 */
+	default boolean isPerfectParallel() {
+		/** Local Variable Initialisation **/
+		int rows = rows(), cols = cols(), numCells = numCells();
+		int[] directions = directions();
+		int owned = directions.length / 2;
+		int stripRows = (rows + 4 * ForkJoinPool.getCommonPoolParallelism() - 1) / (4 * ForkJoinPool.getCommonPoolParallelism());
+		int stripCells = stripRows * cols, numStrips = (rows + stripRows - 1) / stripRows;
+		DisjointSet[] strips = new DisjointSet[numStrips];
+		long[] edges = new long[numStrips];
+		// tunnels from a strip to a later one, as pairs of cell ids, and the number of ids used
+		int[][] tunnels = new int[numStrips][];
+		int[] numLeaving = new int[numStrips];
+		/** Implementation **/
+		boolean isLoopFree = IntStream.range(0, numStrips).parallel().allMatch(s -> {
+			int from = s * stripCells, to = Math.min(numCells, from + stripCells);
+			DisjointSet sets = new DisjointSet(to - from);
+			int[] leaving = new int[8];
+			for (int id = from; id < to; id++) {
+				for (int k = 0; k < owned; k++) {
+					int next = passage(id, directions[k]);
+					if (next >= 0 && next < to) {
+						if (!sets.union(id - from, next - from))
+							return false;
+						edges[s]++;
+					}
+				}
+				int next = tunnelTo(id);
+				if (next > id && next < to) {
+					if (!sets.union(id - from, next - from))
+						return false;
+					edges[s]++;
+				} else if (next >= to) {
+					if (numLeaving[s] + 2 > leaving.length)
+						leaving = Arrays.copyOf(leaving, leaving.length * 2);
+					leaving[numLeaving[s]++] = id;
+					leaving[numLeaving[s]++] = next;
+				}
+			}
+			strips[s] = sets;
+			tunnels[s] = leaving;
+			return true;
+		});
+		if (!isLoopFree)
+			return false;
+		// Cells are merged by the root their strip gave them
+		DisjointSet merged = new DisjointSet(numCells);
+		long total = 0;
+		for (int s = 0; s < numStrips; s++) {
+			total += edges[s];
+			// Walls from the last row of the strip up into the next one
+			int end = (s + 1) * stripCells;
+			for (int id = end - cols; s + 1 < numStrips && id < end; id++) {
+				for (int k = 0; k < owned; k++) {
+					int next = passage(id, directions[k]);
+					if (next >= end) {
+						if (!merged.union(stripRoot(strips, stripCells, id), stripRoot(strips, stripCells, next)))
+							return false;
+						total++;
+					}
+				}
+			}
+			for (int i = 0; i < numLeaving[s]; i += 2) {
+				if (!merged.union(stripRoot(strips, stripCells, tunnels[s][i]), stripRoot(strips, stripCells, tunnels[s][i + 1])))
+					return false;
+				total++;
+			}
+		}
+		return total == numCells - 1;
+	} // end of isPerfectParallel()
+
+	/**
+	 * Cell id of the root the strip of cell id gave it, for isPerfectParallel().
+	 */
+	private static int stripRoot(DisjointSet[] strips, int stripCells, int id) {
+		int s = id / stripCells;
+		return s * stripCells + strips[s].find(id - s * stripCells);
+	} // end of stripRoot()
+
+	/**
+	 * Show validation result of a solution given as a path, in one pass along it:
+	 * it must start at the entrance, end at the exit, and every step must go through
+	 * an open wall or a tunnel.
+	 * @param path Cell ids from the entrance to the exit.
+	 * @return true if the path is a valid solution.
+	 */
+	default boolean validate(int[] path) {
+		Validator.Result result = Validator.local().validate(this, path);
+		result.print();
+		return result.valid;
+	} // end of validate()
+
+} // end of interface MazeGraph
@@ -1,6 +1,6 @@
 package maze;
 
-import java.util.*;
+import java.util.List;
 
 import maze.StdDraw;
 
@@ -14,9 +14,9 @@ import maze.StdDraw;
 public class NormalMaze extends Maze {
 
  	/**
- 	 * Boolean matrix to record visited cells by drawFtPrt(Cell)
+ 	 * Bitset to record visited cells by drawFtPrt(Cell), bit cellId(cell) is set when cell is drawn
  	 */
- 	protected boolean isRecorded[][];
+ 	protected long isRecorded[];
 
 	
 	public NormalMaze() {
@@ -95,44 +95,13 @@ public class NormalMaze extends Maze {
 			exit = map[exitR][exitC];
 
  		// set up recording matrix for validation
- 		isRecorded = new boolean[sizeR][sizeC];
+ 		isRecorded = new long[PackedMaze.words(numCells())];
+
+		// set up neighbour and wall index tables
+		buildTables();
 	} // end of initMaze()
 	
 	
-	@Override
-	public boolean isPerfect() {
-		boolean visited[][] = new boolean[sizeR][sizeC];
-		Queue<Cell> queue = new LinkedList<Cell>();
-		
-		queue.add(entrance);
-		
-		while (!queue.isEmpty()) {
-			Cell currCell = queue.poll();
-			visited[currCell.r][currCell.c] = true;
-			int visitedNeigh = 0;
-			for (int i = 0; i < NUM_DIR; i++) {
-				Cell nextCell = currCell.neigh[i];
-				if (!isIn(nextCell) || currCell.wall[i].present)
-					continue;
-				if (visited[nextCell.r][nextCell.c])
-					visitedNeigh += 1; 
-				else
-					queue.add(nextCell);
-			}
-			
-			if (visitedNeigh > 1)
-				return false;
-		}
-		
-		for (int i = 0; i < sizeR; i++)
-			for (int j = 0; j < sizeC; j++)
-				if (!visited[i][j])
-					return false;
-		
-		return true;
-	} // end of isPerfect()
-
-	
 	@Override
 	public void draw() {
 		// draw nothing if visualization is switched off
@@ -197,7 +166,7 @@ public class NormalMaze extends Maze {
 	@Override
 	public void drawFtPrt(Cell cell) {
  		// record every cell drawn
- 		isRecorded[cell.r][cell.c] = true;
+ 		PackedMaze.setBit(isRecorded, cellId(cell));
 
 		// draw nothing if visualization is switched off
 		if (!isVisu)
@@ -208,55 +177,17 @@ public class NormalMaze extends Maze {
 	} // end of drawFtPrt()
 	
 
-        @Override
-        public boolean validate() {
-                boolean isValid = true;
-                int pathLength = 0;
-                int count = 0;
-
-                int stepCount[][] = new int[sizeR][sizeC];
-                Queue<Cell> queue = new LinkedList<Cell>();
-
-                queue.add(entrance);
-                stepCount[entrance.r][entrance.c] = 1;
-
-                while (!queue.isEmpty()) {
-                        Cell cell = queue.poll();
-                        count++;
-                        int step = stepCount[cell.r][cell.c];
-
-                        for (int i = 0; i < Maze.NUM_DIR; i++) {
-                                Cell next = cell.neigh[i];
-                                if (next != null && !cell.wall[i].present && isRecorded[next.r][next.c] && stepCount[next.r][next.c] == 0) {
-                                        stepCount[next.r][next.c] = step + 1;
-                                        queue.add(next);
-                                }
-                        }
-                }
-
-                if (stepCount[exit.r][exit.c] == 0) {
-                        isValid = false;
-                        System.out.println("[Validation] Exit is not reached.");
-                }
-                else {
-                        pathLength = stepCount[exit.r][exit.c];
-                }
-
-                for (int i = 0; i < sizeR; i++){
-                        for (int j = 0; j < sizeC; j++) {
-                                if (isValid && isRecorded[i][j] && stepCount[i][j] == 0) {
-                                        isValid = false;
-                                        System.out.println("[Validation] Visited cell not reachable.");
-                                }
-                        }
-                }
+	@Override
+	public Validator.Result validateResult() {
+		return Validator.local().validate(this, isRecorded);
+	} // end of validateResult()
 
-                if (isValid) {
-                        System.out.println("[Validation] Number of cells visited = " + count);
-                        System.out.println("[Validation] Path length of the solution = " + pathLength);
-                }
 
-                return isValid;
+        @Override
+        public boolean validate() {
+                Validator.Result result = validateResult();
+                result.print();
+                return result.valid;
         } // end of validate()
 
 } // end of class NormalMaze
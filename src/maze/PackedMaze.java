@@ -0,0 +1,414 @@
+package maze;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static maze.Maze.*;
+
+/**
+ * Compact maze which stores wall presence as bits in a long[] and
+ * identifies cells by an int id instead of Cell objects.
+ *
+ * Cell (r, c) has id r * sizeC + c, where c is the column counted from the
+ * start of the row (i.e. without the hexagon offset used by HexMaze.map).
+ * Every cell owns the walls on its EAST, NORTHEAST and NORTH (NORTHWEST)
+ * side, the other three walls belong to the neighbour on that side, so a
+ * wall shared by two cells is a single bit. Walls on the border of the maze
+ * have no bit and are always present.
+ *
+ * Existing generators and solvers work on Maze objects; use
+ * PackedMaze(Maze) / copyTo(Maze) or toMaze() to move between the two.
+ * Solvers written against MazeGraph work on both directly.
+ */
+public class PackedMaze implements MazeGraph {
+
+	/**
+	 * Number of wall bits owned by each cell.
+	 */
+	public final static int BITS_PER_CELL = 3;
+
+	/**
+	 * Atomic access to single words of the wall bitset.
+	 */
+	private final static VarHandle WORD = MethodHandles.arrayElementVarHandle(long[].class);
+
+	/**
+	 * maze properties, same meaning as in Maze
+	 */
+	public final int type;
+	public final int sizeR;
+	public final int sizeC;
+	public final int numCells;
+	public int sizeTunnel = 0;
+	public int entrance = 0;
+	public int exit = 0;
+
+	/**
+	 * Directions used by this maze, either squareDir or hexDir.
+	 */
+	public final int dirs[];
+
+	/**
+	 * Bit (id * BITS_PER_CELL + k) is set when wall k of cell id is present.
+	 */
+	protected final long walls[];
+
+	/**
+	 * Bit id is set when cell id is one end of a tunnel.
+	 */
+	protected long hasTunnel[] = null;
+
+	/**
+	 * Sorted tunnel ends and the cell on the other side of each of them.
+	 */
+	protected int tunnelEnd[] = new int[0];
+	protected int tunnelPeer[] = new int[0];
+
+	/**
+	 * Bit id is set when cell id has been recorded by drawFtPrt(int).
+	 */
+	protected long isRecorded[];
+
+
+	/**
+	 * Construct an all-wall maze, same parameters as Maze.initMaze().
+	 * @param type Maze.NORMAL, Maze.TUNNEL or Maze.HEX.
+	 * @param rs Number of rows to build.
+	 * @param cs Number of columns to build.
+	 * @param entR Row coordinate of entrance.
+	 * @param entC Column coordinate of entrance.
+	 * @param exitR Row coordinate of exit.
+	 * @param exitC Column coordinate of exit.
+	 * @param tunnelList A list tunnels, each in the form of {p1Row, p1Col, p2Row,p2Col}.
+	 */
+	public PackedMaze(int type, int rs, int cs, int entR, int entC, int exitR, int exitC, List<int[]> tunnelList) {
+		this(type, rs, cs);
+		entrance = entR * sizeC + entC;
+		exit = exitR * sizeC + exitC;
+		if (type == TUNNEL) {
+			int ends[] = new int[2 * tunnelList.size()];
+			for (int i = 0; i < tunnelList.size(); i++) {
+				int t[] = tunnelList.get(i);
+				ends[2 * i] = t[0] * sizeC + t[1];
+				ends[2 * i + 1] = t[2] * sizeC + t[3];
+			}
+			setTunnels(ends);
+		}
+	} // end of PackedMaze()
+
+
+	/**
+	 * Pack the walls, tunnels, entrance and exit of an initialised Maze.
+	 * @param maze Maze to copy.
+	 */
+	public PackedMaze(Maze maze) {
+		this(maze.type, maze.sizeR, maze.sizeC);
+		entrance = maze.cellId(maze.entrance);
+		exit = maze.cellId(maze.exit);
+		int ends[] = new int[2 * maze.sizeTunnel];
+		int numEnds = 0;
+		for (int id = 0; id < numCells; id++) {
+			Cell cell = maze.cellAt(id);
+			for (int k = 0; k < BITS_PER_CELL; k++)
+				if (cell.neigh[k] != null && !cell.wall[k].present)
+					clearBit(walls, (long) id * BITS_PER_CELL + k);
+			if (cell.tunnelTo != null && id < maze.cellId(cell.tunnelTo) && numEnds < ends.length) {
+				ends[numEnds++] = id;
+				ends[numEnds++] = maze.cellId(cell.tunnelTo);
+			}
+		}
+		setTunnels(Arrays.copyOf(ends, numEnds));
+	} // end of PackedMaze()
+
+
+	private PackedMaze(int type, int rs, int cs) {
+		this.type = type;
+		sizeR = rs;
+		sizeC = cs;
+		numCells = rs * cs;
+		dirs = type == HEX ? hexDir : squareDir;
+		walls = new long[words((long) numCells * BITS_PER_CELL)];
+		Arrays.fill(walls, -1L);
+		isRecorded = new long[words(numCells)];
+	} // end of PackedMaze()
+
+
+	/**
+	 * Register tunnels given as consecutive pairs of cell ids.
+	 */
+	private void setTunnels(int ends[]) {
+		sizeTunnel = ends.length / 2;
+		if (sizeTunnel == 0)
+			return;
+		hasTunnel = new long[words(numCells)];
+		long pairs[] = new long[ends.length];
+		for (int i = 0; i < ends.length; i++) {
+			int peer = ends[i ^ 1];
+			pairs[i] = ((long) ends[i] << 32) | peer;
+			setBit(hasTunnel, ends[i]);
+		}
+		Arrays.sort(pairs);
+		tunnelEnd = new int[pairs.length];
+		tunnelPeer = new int[pairs.length];
+		for (int i = 0; i < pairs.length; i++) {
+			tunnelEnd[i] = (int) (pairs[i] >>> 32);
+			tunnelPeer[i] = (int) pairs[i];
+		}
+	} // end of setTunnels()
+
+
+	// auxiliary functions, also used by the generators and solvers for their own bitsets
+	public static int words(long bits) {
+		return (int) ((bits + 63) >>> 6);
+	} // end of words()
+
+	public static boolean getBit(long bits[], long i) {
+		return (bits[(int) (i >>> 6)] & (1L << i)) != 0;
+	} // end of getBit()
+
+	public static void setBit(long bits[], long i) {
+		bits[(int) (i >>> 6)] |= 1L << i;
+	} // end of setBit()
+
+	public static void clearBit(long bits[], long i) {
+		bits[(int) (i >>> 6)] &= ~(1L << i);
+	} // end of clearBit()
+
+
+	/**
+	 * Id of the neighbour of cell (r, c) in direction dir.
+	 * @param r Row coordinate.
+	 * @param c Column coordinate, counted from the start of the row.
+	 * @param dir Direction of the neighbour.
+	 * @return Neighbour id, or -1 if there is no neighbour in that direction.
+	 */
+	public int neighbour(int r, int c, int dir) {
+		int nr = r + deltaR[dir];
+		if (nr < 0 || nr >= sizeR)
+			return -1;
+		int nc = c + deltaC[dir];
+		if (type == HEX)
+			nc += colOffset(r) - colOffset(nr);
+		else if (dir == NORTHEAST || dir == SOUTHWEST)
+			return -1;
+		if (nc < 0 || nc >= sizeC)
+			return -1;
+		return nr * sizeC + nc;
+	} // end of neighbour()
+
+
+	/**
+	 * Id of the neighbour of cell id in direction dir.
+	 * @return Neighbour id, or -1 if there is no neighbour in that direction.
+	 */
+	public int neighbour(int id, int dir) {
+		int r = id / sizeC;
+		return neighbour(r, id - r * sizeC, dir);
+	} // end of neighbour()
+
+
+	/**
+	 * Other end of the tunnel at cell id.
+	 * @return Tunnel end id, or -1 if cell id has no tunnel.
+	 */
+	public int tunnelTo(int id) {
+		if (hasTunnel == null || !getBit(hasTunnel, id))
+			return -1;
+		return tunnelPeer[Arrays.binarySearch(tunnelEnd, id)];
+	} // end of tunnelTo()
+
+
+	/**
+	 * Position of the bit storing the wall between id and its neighbour next in direction dir.
+	 */
+	protected long wallBit(int id, int dir, int next) {
+		return dir < BITS_PER_CELL ? (long) id * BITS_PER_CELL + dir : (long) next * BITS_PER_CELL + oppoDir[dir];
+	} // end of wallBit()
+
+
+	public int mazeType() {
+		return type;
+	} // end of mazeType()
+
+	public int rows() {
+		return sizeR;
+	} // end of rows()
+
+	public int cols() {
+		return sizeC;
+	} // end of cols()
+
+	public int numCells() {
+		return numCells;
+	} // end of numCells()
+
+	public int entranceId() {
+		return entrance;
+	} // end of entranceId()
+
+	public int exitId() {
+		return exit;
+	} // end of exitId()
+
+	public int[] directions() {
+		return dirs;
+	} // end of directions()
+
+	public int passage(int id, int dir) {
+		int next = neighbour(id, dir);
+		return next < 0 || getBit(walls, wallBit(id, dir, next)) ? -1 : next;
+	} // end of passage()
+
+
+	/**
+	 * Check whether the wall of cell id in direction dir is present.
+	 * Walls on the border of the maze are always present.
+	 */
+	public boolean isWall(int id, int dir) {
+		int next = neighbour(id, dir);
+		return next < 0 || getBit(walls, wallBit(id, dir, next));
+	} // end of isWall()
+
+
+	/**
+	 * Knock down or rebuild the wall of cell id in direction dir.
+	 * Walls on the border of the maze are left untouched.
+	 */
+	public void setWall(int id, int dir, boolean present) {
+		int next = neighbour(id, dir);
+		if (next < 0)
+			return;
+		if (present)
+			setBit(walls, wallBit(id, dir, next));
+		else
+			clearBit(walls, wallBit(id, dir, next));
+	} // end of setWall()
+
+
+	/**
+	 * Knock down the wall between cell id and its neighbour next in direction dir.
+	 * Cheaper than setWall() when the neighbour is already known.
+	 * @param id Cell id.
+	 * @param dir Direction of the wall.
+	 * @param next Neighbour of id in direction dir, as returned by neighbour().
+	 */
+	public void removeWall(int id, int dir, int next) {
+		clearBit(walls, wallBit(id, dir, next));
+	} // end of removeWall()
+
+
+	/**
+	 * Same as removeWall(), but safe when other threads knock down walls
+	 * stored in the same word at the same time.
+	 */
+	public void removeWallConcurrent(int id, int dir, int next) {
+		long bit = wallBit(id, dir, next);
+		WORD.getAndBitwiseAnd(walls, (int) (bit >>> 6), ~(1L << bit));
+	} // end of removeWallConcurrent()
+
+
+	/**
+	 * Reset every wall to present and clear the recorded foot prints.
+	 */
+	public void reset() {
+		Arrays.fill(walls, -1L);
+		Arrays.fill(isRecorded, 0L);
+	} // end of reset()
+
+
+	/**
+	 * Heap used by the wall, tunnel and recording arrays.
+	 * @return Approximate size in bytes.
+	 */
+	public long footprint() {
+		long bytes = 8L * (walls.length + isRecorded.length);
+		if (hasTunnel != null)
+			bytes += 8L * hasTunnel.length + 8L * tunnelEnd.length;
+		return bytes;
+	} // end of footprint()
+
+
+	/**
+	 * Record a foot print at cell id, for testing solution. Nothing is drawn.
+	 * @param id Cell id to be recorded.
+	 */
+	public void drawFtPrt(int id) {
+		setBit(isRecorded, id);
+	} // end of drawFtPrt()
+
+
+	/**
+	 * Same check as validate(), returned instead of shown.
+	 * @return Result of the shared validator of this thread, overwritten by its next validation.
+	 */
+	public Validator.Result validateResult() {
+		return Validator.local().validate(this, isRecorded);
+	} // end of validateResult()
+
+
+	/**
+	 * Show validation result of whether the maze is solved, i.e. the recorded
+	 * cells connect the entrance to the exit and are all reachable from the entrance.
+	 * @return true if the recorded cells form a valid solution.
+	 */
+	public boolean validate() {
+		Validator.Result result = validateResult();
+		result.print();
+		return result.valid;
+	} // end of validate()
+
+
+	/**
+	 * Write the wall state into an initialised Maze of the same type and size,
+	 * so that code working on Cell objects sees the packed maze.
+	 * @param maze Maze to update.
+	 */
+	public void copyTo(Maze maze) {
+		for (int id = 0; id < numCells; id++) {
+			Cell cell = maze.cellAt(id);
+			for (int k = 0; k < BITS_PER_CELL; k++)
+				if (cell.neigh[k] != null)
+					cell.wall[k].present = getBit(walls, (long) id * BITS_PER_CELL + k);
+		}
+	} // end of copyTo()
+
+
+	/**
+	 * Copy the foot prints recorded by a Maze, e.g. after solving a Maze
+	 * built by toMaze(), so that the solution can be validated here.
+	 * @param maze Maze whose foot prints are copied.
+	 */
+	public void recordFrom(NormalMaze maze) {
+		System.arraycopy(maze.isRecorded, 0, isRecorded, 0, isRecorded.length);
+	} // end of recordFrom()
+
+
+	/**
+	 * Build the equivalent Maze object, for generators and solvers working on Cell objects.
+	 * @return A NormalMaze, TunnelMaze or HexMaze with the same walls.
+	 */
+	public Maze toMaze() {
+		Maze maze;
+		switch (type) {
+		case TUNNEL:
+			maze = new TunnelMaze();
+			break;
+		case HEX:
+			maze = new HexMaze();
+			break;
+		default:
+			maze = new NormalMaze();
+		}
+		List<int[]> tunnelList = new ArrayList<int[]>();
+		for (int i = 0; i < tunnelEnd.length; i++)
+			if (tunnelEnd[i] < tunnelPeer[i])
+				tunnelList.add(new int[] { tunnelEnd[i] / sizeC, tunnelEnd[i] % sizeC, tunnelPeer[i] / sizeC, tunnelPeer[i] % sizeC });
+		maze.initMaze(sizeR, sizeC, entrance / sizeC, entrance % sizeC, exit / sizeC, exit % sizeC, tunnelList);
+		copyTo(maze);
+		return maze;
+	} // end of toMaze()
+
+} // end of class PackedMaze
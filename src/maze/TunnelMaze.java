@@ -1,6 +1,7 @@
 package maze;
 import java.awt.Color;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Class of a rectangular maze contains several tunnels each of which connecting a pair of cells.
@@ -20,50 +21,13 @@ public class TunnelMaze extends NormalMaze {
 		for (int i = 0; i < tunnelList.size(); i++) {
 			map[tunnelList.get(i)[0]][tunnelList.get(i)[1]].tunnelTo = map[tunnelList.get(i)[2]][tunnelList.get(i)[3]];
 			map[tunnelList.get(i)[2]][tunnelList.get(i)[3]].tunnelTo = map[tunnelList.get(i)[0]][tunnelList.get(i)[1]];
+			// the tables were built before the tunnels, so only their tunnel slots are filled in
+			int p1 = cellId(map[tunnelList.get(i)[0]][tunnelList.get(i)[1]]), p2 = cellId(map[tunnelList.get(i)[2]][tunnelList.get(i)[3]]);
+			neighbour[p1 * NUM_SIDES + TUNNEL_SIDE] = p2;
+			neighbour[p2 * NUM_SIDES + TUNNEL_SIDE] = p1;
 		}
 	} // end of initMaze()
 	
-	@Override
-	public boolean isPerfect() {
-		boolean visited[][] = new boolean[sizeR][sizeC];
-		Queue<Cell> queue = new LinkedList<Cell>();
-		
-		queue.add(entrance);
-		
-		while (!queue.isEmpty()) {
-			Cell cell = queue.poll();
-			Cell next = null;
-			visited[cell.r][cell.c] = true;
-			int visitedNeigh = 0;
-			if (cell.tunnelTo != null) {
-				next = cell.tunnelTo;
-				if (visited[next.r][next.c])
-					visitedNeigh += 1; 
-				else
-					queue.add(next);
-			}
-			for (int i = 0; i < NUM_DIR; i++) {
-				next = cell.neigh[i];
-				if (!isIn(next) || cell.wall[i].present)
-					continue;
-				if (visited[next.r][next.c])
-					visitedNeigh += 1; 
-				else
-					queue.add(next);
-			}
-			
-			if (visitedNeigh > 1)
-				return false;
-		}
-		
-		for (int i = 0; i < sizeR; i++)
-			for (int j = 0; j < sizeC; j++)
-				if (!visited[i][j])
-					return false;
-		
-		return true;
-	} // end of isPerfect()
-	
 	@Override
 	public void draw() {
 		// draw nothing if visualization is switched off
@@ -105,61 +69,4 @@ public class TunnelMaze extends NormalMaze {
 		}
 	} // end of draw()
 
-
-        @Override
-        public boolean validate() {
-                boolean isValid = true;
-                int pathLength = 0;
-                int count = 0;
-
-                int stepCount[][] = new int[sizeR][sizeC];
-                Queue<Cell> queue = new LinkedList<Cell>();
-
-                queue.add(entrance);
-                stepCount[entrance.r][entrance.c] = 1;
-
-                while (!queue.isEmpty()) {
-                        Cell cell = queue.poll();
-                        count++;
-                        int step = stepCount[cell.r][cell.c];
-
-                        if (cell.tunnelTo != null && isRecorded[cell.tunnelTo.r][cell.tunnelTo.c] && stepCount[cell.tunnelTo.r][cell.tunnelTo.c] == 0) {
-                                stepCount[cell.tunnelTo.r][cell.tunnelTo.c] = step + 1;
-                                queue.add(cell.tunnelTo);
-                        }
-
-                        for (int i = 0; i < Maze.NUM_DIR; i++) {
-                                Cell next = cell.neigh[i];
-                                if (next != null && !cell.wall[i].present && isRecorded[next.r][next.c] && stepCount[next.r][next.c] == 0) {
-                                        stepCount[next.r][next.c] = step + 1;
-                                        queue.add(next);
-                                }
-                        }
-                }
-
-                if (stepCount[exit.r][exit.c] == 0) {
-                        isValid = false;
-                        System.out.println("[Validation] Exit is not reached.");
-                }
-                else {
-                        pathLength = stepCount[exit.r][exit.c];
-                }
-
-                for (int i = 0; i < sizeR; i++){
-                        for (int j = 0; j < sizeC; j++) {
-                                if (isValid && isRecorded[i][j] && stepCount[i][j] == 0) {
-                                        isValid = false;
-                                        System.out.println("[Validation] Visited cell not reachable.");
-                                }
-                        }
-                }
-
-                if (isValid) {
-                        System.out.println("[Validation] Number of cells visited = " + count);
-                        System.out.println("[Validation] Path length of the solution = " + pathLength);
-                }
-
-                return isValid;
-        } // end of validate()
-
 } // end of class TunnelMaze
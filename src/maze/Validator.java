@@ -0,0 +1,185 @@
+package maze;
+
+/**
+ * Validation engine shared by every maze type. It works on cell ids through MazeGraph and
+ * keeps its queue and bitset between calls, growing them only for a larger maze, so
+ * validating many mazes in sequence allocates nothing once it has seen the largest one.
+ * Use local() for the validator of the current thread.
+ */
+public class Validator {
+
+	/**
+	 * Outcome of a validation. The validator fills the same object on every call.
+	 */
+	public static class Result {
+		/**
+		 * true if the solution is valid.
+		 */
+		public boolean valid;
+
+		/**
+		 * Number of distinct cells reached from the entrance through recorded cells, or along the path.
+		 */
+		public int reachedCells;
+
+		/**
+		 * Number of cells on the solution, entrance and exit included. For an invalid path,
+		 * the number of cells before the failing step.
+		 */
+		public int pathLength;
+
+		/**
+		 * Reason the solution is not valid, null if it is.
+		 */
+		public String problem;
+
+		/**
+		 * Show the result the way Maze.validate() always has.
+		 */
+		public void print() {
+			if (!valid) {
+				System.out.println("[Validation] " + problem);
+				return;
+			}
+			System.out.println("[Validation] Number of cells visited = " + reachedCells);
+			System.out.println("[Validation] Path length of the solution = " + pathLength);
+		} // end of print()
+	} // end of class Result
+
+	/**
+	 * Reasons of an invalid solution.
+	 */
+	public final static String EXIT_NOT_REACHED = "Exit is not reached.";
+	public final static String CELL_NOT_REACHABLE = "Visited cell not reachable.";
+	public final static String NOT_FROM_ENTRANCE = "Path does not start at the entrance.";
+	public final static String THROUGH_WALL = "Path goes through a wall.";
+	public final static String CELL_REPEATED = "Path visits a cell twice.";
+
+	private final static ThreadLocal<Validator> LOCAL = ThreadLocal.withInitial(Validator::new);
+
+	/**
+	 * scratch of the search: queue of cell ids and bitset of the cells reached
+	 */
+	private int queue[] = new int[0];
+	private long reached[] = new long[0];
+
+	private final Result result = new Result();
+
+
+	/**
+	 * Validator of the current thread.
+	 */
+	public static Validator local() {
+		return LOCAL.get();
+	} // end of local()
+
+
+	/**
+	 * Check the foot prints of a solution: breadth first search from the entrance through
+	 * recorded cells must reach the exit and every recorded cell.
+	 * @param maze Maze that was solved.
+	 * @param recorded Bitset of the recorded cells, bit id set when cell id was drawn.
+	 * @return The result, overwritten by the next call.
+	 */
+	public Result validate(MazeGraph maze, long recorded[]) {
+		/** Local Variable Initialisation **/
+		int numCells = maze.numCells(), entrance = maze.entranceId(), exit = maze.exitId();
+		int[] directions = maze.directions();
+		if (queue.length < numCells) {
+			queue = new int[numCells];
+			reached = new long[PackedMaze.words(numCells)];
+		}
+		int head = 0, tail = 0, step = 0, pathLength = 0;
+		queue[tail++] = entrance;
+		PackedMaze.setBit(reached, entrance);
+		/** Implementation **/
+		// breadth first search one level at a time, so no step count is stored per cell
+		while (head < tail) {
+			int levelEnd = tail;
+			step++;
+			for (; head < levelEnd; head++) {
+				int id = queue[head];
+				if (id == exit)
+					pathLength = step;
+				for (int k = 0; k <= directions.length; k++) {
+					int next = k < directions.length ? maze.passage(id, directions[k]) : maze.tunnelTo(id);
+					if (next >= 0 && PackedMaze.getBit(recorded, next) && !PackedMaze.getBit(reached, next)) {
+						PackedMaze.setBit(reached, next);
+						queue[tail++] = next;
+					}
+				}
+			}
+		}
+		// Every reached cell but the entrance is recorded, so all recorded cells are reached when the counts match
+		long numRecorded = 0;
+		for (int i = 0; i < PackedMaze.words(numCells); i++)
+			numRecorded += Long.bitCount(recorded[i]);
+		boolean allReached = numRecorded == tail - (PackedMaze.getBit(recorded, entrance) ? 0 : 1);
+		// Leave the bitset clear for the next call
+		for (int i = 0; i < tail; i++)
+			PackedMaze.clearBit(reached, queue[i]);
+		result.reachedCells = tail;
+		result.pathLength = pathLength;
+		result.problem = pathLength == 0 ? EXIT_NOT_REACHED : allReached ? null : CELL_NOT_REACHABLE;
+		result.valid = result.problem == null;
+		return result;
+	} // end of validate()
+
+
+	/**
+	 * Check a solution given as a path, in one pass along it: it must start at the entrance,
+	 * end at the exit, never come back to a cell, and every step must go through an open
+	 * wall or a tunnel.
+	 * @param maze Maze that was solved.
+	 * @param path Cell ids from the entrance to the exit.
+	 * @return The result, overwritten by the next call.
+	 */
+	public Result validate(MazeGraph maze, int path[]) {
+		/** Local Variable Initialisation **/
+		int numCells = maze.numCells();
+		int[] directions = maze.directions();
+		if (queue.length < numCells) {
+			queue = new int[numCells];
+			reached = new long[PackedMaze.words(numCells)];
+		}
+		int distinct = 0;
+		result.problem = null;
+		result.pathLength = 0;
+		/** Implementation **/
+		if (path == null || path.length == 0 || path[0] != maze.entranceId())
+			result.problem = NOT_FROM_ENTRANCE;
+		else {
+			PackedMaze.setBit(reached, path[0]);
+			distinct = 1;
+		}
+		for (int i = 1; result.problem == null && i < path.length; i++) {
+			int from = path[i - 1], to = path[i];
+			// passage() and tunnelTo() give -1 for closed sides, so only real ids are compared
+			boolean isStep = to >= 0 && to < numCells && maze.tunnelTo(from) == to;
+			for (int k = 0; k < directions.length && !isStep && to >= 0; k++)
+				isStep = maze.passage(from, directions[k]) == to;
+			if (!isStep) {
+				result.problem = THROUGH_WALL;
+				result.pathLength = i;
+			} else if (PackedMaze.getBit(reached, to)) {
+				result.problem = CELL_REPEATED;
+				result.pathLength = i;
+			} else {
+				PackedMaze.setBit(reached, to);
+				distinct++;
+			}
+		}
+		// Leave the bitset clear for the next call, the cells set are the first distinct ones of the path
+		for (int i = 0; i < distinct; i++)
+			PackedMaze.clearBit(reached, path[i]);
+		if (result.problem == null) {
+			result.pathLength = path.length;
+			if (path[path.length - 1] != maze.exitId())
+				result.problem = EXIT_NOT_REACHED;
+		}
+		result.reachedCells = distinct;
+		result.valid = result.problem == null;
+		return result;
+	} // end of validate()
+
+} // end of class Validator
@@ -0,0 +1,183 @@
+package mazeGenerator;
+
+import maze.Cell;
+import maze.DisjointSet;
+import maze.Maze;
+import maze.PackedMaze;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Eller's algorithm: generates a perfect rectangular maze one row at a time, keeping only
+ * the set membership of the current row, so memory is O(sizeC) whatever the number of rows.
+ * Finished rows are handed to a RowSink, which either fills a maze in memory or streams
+ * the rows somewhere else, e.g. to a file.
+ */
+public class EllersGenerator implements PackedMazeGenerator {
+
+    /**
+     * Receiver of the finished rows of a maze, called once per row from row 0 upwards.
+     */
+    public interface RowSink {
+        /**
+         * @param r is the row index
+         * @param eastWall is whether the wall between (r, c) and (r, c + 1) is present, for c < sizeC - 1
+         * @param northWall is whether the wall between (r, c) and (r + 1, c) is present
+         */
+        void acceptRow(int r, boolean[] eastWall, boolean[] northWall);
+    }
+
+    /**
+     * Writes each row as one line of digits, one per cell: 1 if the EAST wall is open plus 2 if the
+     * NORTH wall is open. The number of lines and their length give sizeR and sizeC.
+     */
+    public static class StreamRowSink implements RowSink, Closeable {
+        private final OutputStream out;
+        private byte[] line = new byte[0];
+
+        /**
+         * @param out is the stream the rows are written to, buffered by this sink
+         */
+        public StreamRowSink(OutputStream out) {
+            this.out = new BufferedOutputStream(out, 1 << 16);
+        }
+
+        @Override
+        public void acceptRow(int r, boolean[] eastWall, boolean[] northWall) {
+            if (line.length != northWall.length + 1)
+                line = new byte[northWall.length + 1];
+            for (int c = 0; c < northWall.length; c++)
+                line[c] = (byte) ('0' + (eastWall[c] ? 0 : 1) + (northWall[c] ? 0 : 2));
+            line[northWall.length] = '\n';
+            try {
+                out.write(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Instance Variables
+     */
+    private final SplittableRandom rand;
+
+    /**
+     * Construct a generator with an arbitrary seed.
+     */
+    public EllersGenerator() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Construct a generator whose mazes are fully determined by the seed.
+     * @param seed is the seed of the random number generator
+     */
+    public EllersGenerator(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private EllersGenerator(SplittableRandom rand) {
+        this.rand = rand;
+    }
+
+    @Override
+    public void generateMaze(Maze maze) {
+        /** Implementation **/
+        checkSupported(maze.type, maze.sizeTunnel);
+        generate(maze.sizeR, maze.sizeC, (r, eastWall, northWall) -> {
+            for (int c = 0; c < maze.sizeC; c++) {
+                Cell cell = maze.map[r][c];
+                if (c < maze.sizeC - 1)
+                    cell.wall[Maze.EAST].present = eastWall[c];
+                if (r < maze.sizeR - 1)
+                    cell.wall[Maze.NORTH].present = northWall[c];
+            }
+        });
+    } // end of generateMaze()
+
+    @Override
+    public void generateMaze(PackedMaze maze) {
+        /** Implementation **/
+        checkSupported(maze.type, maze.sizeTunnel);
+        generate(maze.sizeR, maze.sizeC, (r, eastWall, northWall) -> {
+            for (int c = 0, id = r * maze.sizeC; c < maze.sizeC; c++, id++) {
+                if (c < maze.sizeC - 1 && !eastWall[c])
+                    maze.removeWall(id, Maze.EAST, id + 1);
+                if (r < maze.sizeR - 1 && !northWall[c])
+                    maze.removeWall(id, Maze.NORTH, id + maze.sizeC);
+            }
+        });
+    } // end of generateMaze()
+
+    /**
+     * Eller's algorithm only works on square cells and cannot account for tunnels.
+     */
+    private void checkSupported(int type, int sizeTunnel) {
+        if (type == Maze.HEX || sizeTunnel > 0)
+            throw new IllegalArgumentException("EllersGenerator only generates rectangular mazes without tunnels");
+    } // end of checkSupported()
+
+    /**
+     * Generate a perfect sizeR x sizeC maze row by row.
+     * @param sizeR is the number of rows, which may be arbitrarily large
+     * @param sizeC is the number of columns
+     * @param sink is the receiver of each finished row
+     */
+    public void generate(int sizeR, int sizeC, RowSink sink) {
+        /** Local Variable Instantiation **/
+        // set[c] is the set label of column c in the current row, labels are in [0, sizeC)
+        int[] set = new int[sizeC], root = new int[sizeC], remaining = new int[sizeC];
+        boolean[] opened = new boolean[sizeC], used = new boolean[sizeC];
+        boolean[] eastWall = new boolean[sizeC], northWall = new boolean[sizeC];
+        DisjointSet labels = new DisjointSet(sizeC);
+        /** Local Variable Initialisation **/
+        for (int c = 0; c < sizeC; c++)
+            set[c] = c;
+        eastWall[sizeC - 1] = true;
+        /** Implementation **/
+        for (int r = 0; r < sizeR; r++) {
+            boolean lastRow = r == sizeR - 1;
+            labels.reset();
+            // Join adjacent cells of different sets at random, and all of them on the last row
+            for (int c = 0; c < sizeC - 1; c++) {
+                eastWall[c] = !((lastRow || rand.nextBoolean()) && labels.union(set[c], set[c + 1]));
+            }
+            // Every set carries on to the next row through at least one opening
+            Arrays.fill(remaining, 0);
+            Arrays.fill(opened, false);
+            for (int c = 0; c < sizeC; c++)
+                remaining[root[c] = labels.find(set[c])]++;
+            for (int c = 0; c < sizeC; c++) {
+                boolean open = !lastRow && (rand.nextBoolean() || (remaining[root[c]] == 1 && !opened[root[c]]));
+                remaining[root[c]]--;
+                opened[root[c]] |= open;
+                northWall[c] = !open;
+            }
+            sink.acceptRow(r, eastWall, northWall);
+            // Cells below an opening keep the set, the other cells start a new set with a free label
+            Arrays.fill(used, false);
+            for (int c = 0; c < sizeC; c++)
+                if (!northWall[c])
+                    used[set[c] = root[c]] = true;
+            for (int c = 0, label = 0; c < sizeC; c++) {
+                if (northWall[c]) {
+                    while (used[label])
+                        label++;
+                    used[set[c] = label] = true;
+                }
+            }
+        }
+    } // end of generate()
+} // end of class EllersGenerator
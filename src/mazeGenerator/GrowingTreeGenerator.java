@@ -1,153 +1,197 @@
 package mazeGenerator;
 
-import java.io.IOException;
 import java.util.*;
 
 import maze.Maze;
-import maze.Cell;
+import maze.PackedMaze;
 
-import static maze.Maze.*;
-import static maze.Maze.SOUTHEAST;
-import static maze.Maze.SOUTHWEST;
+public class GrowingTreeGenerator implements PackedMazeGenerator {
+	// Growing tree maze generator. Each step picks a cell from the active set according to the selection policy:
+	// NEWEST behaves like the recursive backtracker, RANDOM like Prim's, OLDEST grows long straight corridors.
+	public static final int NEWEST = 0;
+	public static final int OLDEST = 1;
+	public static final int RANDOM = 2;
+	private static final String[] POLICY_NAMES = {"newest", "oldest", "random"};
 
-public class GrowingTreeGenerator implements MazeGenerator {
-	// Growing tree maze generator. As it is very general, here we implement as "usually pick the most recent cell, but occasionally pick a random cell"
-	//This value can be changed to determine how often a cell is picked randomly or most recently.
-	double threshold = 0.1;
+	//The default policy: pick a random cell 90% of the time and the most recent one otherwise.
+	public static final String DEFAULT_POLICY = "random:90,newest:10";
 
-	@Override
+	//Cumulative probability of each policy, indexed by NEWEST, OLDEST and RANDOM.
+	private final double[] cumulative = new double[POLICY_NAMES.length];
+	//The policy used on every step, or -1 for a mix of policies.
+	private int singlePolicy;
+	private final SplittableRandom random;
 
-	public void generateMaze(Maze maze) {
-		//Creates a random instance to be used for selecting random indexes from a list
-		Random random = new Random();
-		//z is the list of Cells that will be used for growing tree to select from.
-		ArrayList<Cell> z = new ArrayList<>();
-		//visited is a list of cells that have been visited.
-		ArrayList<Cell> visited = new ArrayList<>();
-		//List of directions. If Hex map more directions are added.
-		ArrayList<Integer> directions = new ArrayList<>(Arrays.asList(NORTH, EAST, SOUTH, WEST));
-		if (maze.type == HEX) {
-			directions.add(NORTHEAST);
-			directions.add(NORTHWEST);
-			directions.add(SOUTHEAST);
-			directions.add(SOUTHWEST);
-		}
-		//Calulcates a random starting position.
-		Cell startingPoint;
-		//If normal maze, select a random cell inside the bounds.
-		if (maze.type == NORMAL) {
-			startingPoint = maze.map[random.nextInt(maze.sizeR)][random.nextInt(maze.sizeC)];
-		//If Hex maze, starting point is calulated according to the FAQ notes.
-		} else {
-			int r = random.nextInt(maze.sizeR);
-			//cBoundValue is calculated after the row has been selected using the formula given in the FAQ notes.
-			int cBoundValue = (int) Math.ceil((double) r / 2) + maze.sizeC;
-			int c;
-			//If row is not even then -1 to the bounds of C.
-			if (r % 2 != 0) {
-				cBoundValue = cBoundValue - 1;
-			}
-			//Select a c value from the calculated bounds
-			c = random.nextInt(cBoundValue);
-			startingPoint = maze.map[r][c];
+	public GrowingTreeGenerator() {
+		this(DEFAULT_POLICY);
+	}
 
-		}
-		z.add(startingPoint);
-		visited.add(startingPoint);
-		Cell current;
-		//While z list is not empty, select a cell from the list and run it through the growing tree algorithm.
-		while(!z.isEmpty()){
-			if(random.nextDouble() > threshold){
-				//Selects random cell from list.
-				current = z.get(random.nextInt(z.size()));
-			}
-			else{
-				//Selects the last cell from the list.
-				current = z.get(z.size()-1);
+	/**
+	 * @param policy is the selection policy, see setPolicy().
+	 */
+	public GrowingTreeGenerator(String policy) {
+		this(policy, new SplittableRandom());
+	}
+
+	/**
+	 * @param policy is the selection policy, see setPolicy().
+	 * @param seed   is the seed which fully determines the generated mazes.
+	 */
+	public GrowingTreeGenerator(String policy, long seed) {
+		this(policy, new SplittableRandom(seed));
+	}
+
+	private GrowingTreeGenerator(String policy, SplittableRandom random) {
+		this.random = random;
+		setPolicy(policy);
+	}
+
+	/**
+	 * Sets how cells are picked from the active set, e.g. "newest", "oldest", "random"
+	 * or a mix with relative weights such as "newest:75,random:25".
+	 *
+	 * @param policy is the comma separated list of policies with optional weights.
+	 */
+	public void setPolicy(String policy) {
+		double[] weights = new double[POLICY_NAMES.length];
+		double total = 0;
+		for (String part : policy.split(",")) {
+			String[] nameWeight = part.trim().split(":");
+			int index = Arrays.asList(POLICY_NAMES).indexOf(nameWeight[0].toLowerCase());
+			if (index < 0 || nameWeight.length > 2) {
+				throw new IllegalArgumentException("Unknown growing tree policy: " + part);
 			}
-			//List of neighs of the current cell
-			ArrayList<Cell> neighs = getTheNeighbours(directions,maze,current,visited);
-			//If current has no neighbours then remove it from z.
-			if(neighs.isEmpty()){
-				z.remove(current);
+			double weight = nameWeight.length == 2 ? Double.parseDouble(nameWeight[1]) : 1;
+			if (weight < 0) {
+				throw new IllegalArgumentException("Negative growing tree policy weight: " + part);
 			}
-			//selects one of the found neighbours and deletes the wall between current and neighCell.
-			else{
-				Cell neighCell = neighs.get(random.nextInt(neighs.size()));
-				deleteWall(directions,maze,neighCell,current);
-				//Add the neighCell to both z and visited.
-				z.add(neighCell);
-				visited.add(neighCell);
+			weights[index] += weight;
+			total += weight;
+		}
+		if (total <= 0) {
+			throw new IllegalArgumentException("Empty growing tree policy: " + policy);
+		}
+		double sum = 0;
+		singlePolicy = -1;
+		for (int i = 0; i < weights.length; i++) {
+			sum += weights[i] / total;
+			cumulative[i] = sum;
+			if (weights[i] == total) {
+				singlePolicy = i;
 			}
-			//Clear the neigh list for next iteration.
-			neighs.clear();
 		}
+		cumulative[weights.length - 1] = 1;
+	}
 
+	@Override
+	public void generateMaze(Maze maze) {
+		//Generate on the packed copy of the maze and write the walls back.
+		PackedMaze packed = new PackedMaze(maze);
+		generateMaze(packed);
+		packed.copyTo(maze);
 	}
-	/**
-	 * Find valid neighbours of a cell.
-	 *
-	 * @param maze       is the maze we are constructing
-	 * @param directions is the list of directions.
-	 * @param cell       is the cell in the maze for which we are finding neighbours.
-	 * @param visited    is the list of visited cells.
-	 */
-	public ArrayList<Cell> getTheNeighbours(ArrayList<Integer> directions, Maze maze, Cell cell, ArrayList<Cell> visited) {
-		ArrayList<Cell> neighs = new ArrayList<>();
-		int i = 0;
-		//Find all valid neighbours of the cell.
-		while (i < directions.size()) {
-			try {
-				if (maze.map[cell.r + deltaR[directions.get(i)]][cell.c + deltaC[directions.get(i)]] != null) {
-					if ((neighs.contains(maze.map[cell.r + deltaR[directions.get(i)]][cell.c + deltaC[directions.get(i)]]))) {
-					} else {
-						neighs.add(maze.map[cell.r + deltaR[directions.get(i)]][cell.c + deltaC[directions.get(i)]]);
 
+	@Override
+	public void generateMaze(PackedMaze maze) {
+		//visited is the bitset of cells that have been visited.
+		long[] visited = new long[PackedMaze.words(maze.numCells)];
+		//done is the bitset of cells removed from the active set because they have no unvisited neighbour.
+		long[] done = new long[PackedMaze.words(maze.numCells)];
+		//active holds the cells to select from in the order they were visited, between head and tail.
+		//Removed cells stay in place until they reach either end or the array is compacted.
+		int[] active = new int[maze.numCells];
+		int head = 0, tail = 0, numDone = 0;
+		//Scratch arrays for the unvisited neighbours of the current cell.
+		int[] neighDir = new int[maze.dirs.length];
+		int[] neighCell = new int[maze.dirs.length];
+		//Selects a random starting cell.
+		int startingPoint = random.nextInt(maze.numCells);
+		tail = visit(maze, startingPoint, visited, active, tail);
+		//While the active set is not empty, select a cell from it and run it through the growing tree algorithm.
+		while (tail - head > numDone) {
+			//A single policy does not need a random draw per step.
+			int policy = singlePolicy;
+			if (policy < 0) {
+				double draw = random.nextDouble();
+				policy = draw < cumulative[NEWEST] ? NEWEST : draw < cumulative[OLDEST] ? OLDEST : RANDOM;
+			}
+			int index;
+			if (policy == NEWEST) {
+				//Selects the last cell, dropping removed cells from the end.
+				while (PackedMaze.getBit(done, active[tail - 1])) {
+					tail--;
+					numDone--;
+				}
+				index = tail - 1;
+			} else if (policy == OLDEST) {
+				//Selects the first cell, dropping removed cells from the start.
+				while (PackedMaze.getBit(done, active[head])) {
+					head++;
+					numDone--;
+				}
+				index = head;
+			} else {
+				//Compacts once half of the range is removed, so a random slot is live with probability >= 1/2.
+				if (2 * numDone > tail - head) {
+					int live = head;
+					for (int i = head; i < tail; i++) {
+						if (!PackedMaze.getBit(done, active[i])) {
+							active[live++] = active[i];
+						}
 					}
+					tail = live;
+					numDone = 0;
 				}
-			} catch (Exception e) { // ignore ArrayIndexOutOfBounds
+				do {
+					index = head + random.nextInt(tail - head);
+				} while (PackedMaze.getBit(done, active[index]));
 			}
+			int current = active[index];
 
-			i++;
-		}
-
-		//Remove all neighs that have been visited already
-		i = 0;
-		while (i < neighs.size()) {
-			if (visited.contains(neighs.get(i))) {
-				neighs.remove(i);
-				continue;
+			//Collects the unvisited neighbours of the current cell.
+			int numNeighs = 0;
+			int r = current / maze.sizeC, c = current - r * maze.sizeC;
+			for (int dir : maze.dirs) {
+				int next = maze.neighbour(r, c, dir);
+				if (next >= 0 && !PackedMaze.getBit(visited, next)) {
+					neighDir[numNeighs] = dir;
+					neighCell[numNeighs++] = next;
+				}
+			}
+			//If current has no neighbours then remove it from the active set.
+			if (numNeighs == 0) {
+				PackedMaze.setBit(done, current);
+				numDone++;
+			}
+			//selects one of the found neighbours and deletes the wall between current and neighCell.
+			else {
+				int pick = random.nextInt(numNeighs);
+				maze.removeWall(current, neighDir[pick], neighCell[pick]);
+				tail = visit(maze, neighCell[pick], visited, active, tail);
 			}
-			i++;
 		}
-		return neighs;
 	}
+
 	/**
-	 * Deletes the wall between cell a and b.
+	 * Marks a cell, and the other end of its tunnel, as visited and appends them to the active set.
 	 *
-	 * @param maze       is the maze we are constructing
-	 * @param directions is the list of directions.
-	 * @param a          is a cell on the maze adjacent to b.
-	 * @param b          is a cell on the maze adjacent to a.
+	 * @param maze    is the maze we are constructing
+	 * @param cell    is the cell being visited.
+	 * @param visited is the bitset of visited cells.
+	 * @param active  is the active set.
+	 * @param tail    is the end of the active set.
+	 * @return the new end of the active set.
 	 */
-	public void deleteWall(ArrayList<Integer> directions, Maze maze, Cell a, Cell b) {
-		int i = 0;
-		Cell tempCell;
-		//Finds the correct direction to delete a wall from.
-		while (i < directions.size()) {
-			try {
-				tempCell = maze.map[a.r + deltaR[directions.get(i)]][a.c + deltaC[directions.get(i)]];
-				if (tempCell != null) {
-					if (tempCell.c == b.c && tempCell.r == b.r) {
-						a.wall[directions.get(i)].present = false;
-					}
-				}
-			} catch (Exception e) { // ignore ArrayIndexOutOfBounds
-			}
-			i++;
+	private int visit(PackedMaze maze, int cell, long[] visited, int[] active, int tail) {
+		PackedMaze.setBit(visited, cell);
+		active[tail++] = cell;
+		//A tunnel is always open, so its other end is visited at the same time.
+		int other = maze.tunnelTo(cell);
+		if (other >= 0 && !PackedMaze.getBit(visited, other)) {
+			PackedMaze.setBit(visited, other);
+			active[tail++] = other;
 		}
-
+		return tail;
 	}
 
-
 }
@@ -0,0 +1,157 @@
+package mazeGenerator;
+
+import maze.DisjointSet;
+import maze.Maze;
+import maze.PackedMaze;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Randomised Kruskal's algorithm: every wall shared by two cells is visited once in random
+ * order and knocked down whenever the cells on its two sides are not connected yet.
+ */
+public class KruskalGenerator implements PackedMazeGenerator {
+    //Number of row strips the edges are enumerated in, fixed so a seed gives the same maze on any machine.
+    private static final int CHUNKS = 64;
+    //Upper bound of the number of buckets the edges are randomly scattered to before shuffling.
+    private static final int MAX_BUCKETS = 1024;
+
+    //Random source shared by every maze generated by this instance.
+    private final SplittableRandom random;
+
+    public KruskalGenerator() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * @param seed is the seed which fully determines the generated mazes.
+     */
+    public KruskalGenerator(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private KruskalGenerator(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public void generateMaze(Maze maze) {
+        //Generate on the packed copy of the maze and write the walls back.
+        PackedMaze packed = new PackedMaze(maze);
+        generateMaze(packed);
+        packed.copyTo(maze);
+    }
+
+    @Override
+    public void generateMaze(PackedMaze maze) {
+        if ((long) maze.numCells * PackedMaze.BITS_PER_CELL > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many cells for KruskalGenerator: " + maze.numCells);
+        }
+        //Every edge is stored as the wall bit it owns: cell * BITS_PER_CELL + direction.
+        int[] edges = shuffledEdges(maze);
+        DisjointSet sets = new DisjointSet(maze.numCells);
+        //Tunnels are always open, so their two ends start in the same set.
+        for (int id = 0; id < maze.numCells; id++) {
+            int other = maze.tunnelTo(id);
+            if (other > id) {
+                sets.union(id, other);
+            }
+        }
+        //Knock down every wall between two cells which are not connected yet, until one set is left.
+        for (int i = 0; i < edges.length && sets.count() > 1; i++) {
+            int cell = edges[i] / PackedMaze.BITS_PER_CELL, dir = edges[i] - cell * PackedMaze.BITS_PER_CELL;
+            int next = maze.neighbour(cell, dir);
+            if (sets.union(cell, next)) {
+                maze.removeWall(cell, dir, next);
+            }
+        }
+    }
+
+    /**
+     * Lists every wall shared by two cells in uniformly random order. The shuffle is done in parallel:
+     * each edge is sent to a random bucket (Rao-Sandelius), then every bucket is shuffled on its own.
+     *
+     * @param maze is the maze we are constructing
+     * @return the shuffled edges, each encoded as cell * BITS_PER_CELL + direction.
+     */
+    private int[] shuffledEdges(PackedMaze maze) {
+        int numChunks = Math.min(maze.sizeR, CHUNKS);
+        int numBuckets = (int) Math.max(1, Math.min(MAX_BUCKETS, ((long) maze.numCells * PackedMaze.BITS_PER_CELL) >> 16));
+        //Seeds are drawn up front, so the result does not depend on how the tasks are scheduled.
+        long[] chunkSeed = new long[numChunks];
+        long[] bucketSeed = new long[numBuckets];
+        for (int i = 0; i < numChunks; i++) {
+            chunkSeed[i] = random.nextLong();
+        }
+        for (int i = 0; i < numBuckets; i++) {
+            bucketSeed[i] = random.nextLong();
+        }
+
+        //First pass counts the edges each chunk sends to each bucket.
+        int[][] slots = new int[numChunks][numBuckets];
+        IntStream.range(0, numChunks).parallel().forEach(chunk -> scatter(maze, chunk, numChunks, chunkSeed[chunk], slots[chunk], null));
+
+        //Buckets are laid out one after the other, and inside a bucket the chunks are in order.
+        int[] bucketStart = new int[numBuckets + 1];
+        int total = 0;
+        for (int bucket = 0; bucket < numBuckets; bucket++) {
+            bucketStart[bucket] = total;
+            for (int chunk = 0; chunk < numChunks; chunk++) {
+                int count = slots[chunk][bucket];
+                slots[chunk][bucket] = total;
+                total += count;
+            }
+        }
+        bucketStart[numBuckets] = total;
+
+        //Second pass replays the same random draws and writes each edge to its slot.
+        int[] edges = new int[total];
+        IntStream.range(0, numChunks).parallel().forEach(chunk -> scatter(maze, chunk, numChunks, chunkSeed[chunk], slots[chunk], edges));
+
+        //Fisher-Yates shuffle of every bucket.
+        IntStream.range(0, numBuckets).parallel().forEach(bucket -> {
+            SplittableRandom bucketRandom = new SplittableRandom(bucketSeed[bucket]);
+            int start = bucketStart[bucket];
+            for (int i = bucketStart[bucket + 1] - 1; i > start; i--) {
+                int j = start + bucketRandom.nextInt(i - start + 1);
+                int temp = edges[i];
+                edges[i] = edges[j];
+                edges[j] = temp;
+            }
+        });
+        return edges;
+    }
+
+    /**
+     * Sends each edge owned by the cells of a row strip to a random bucket.
+     *
+     * @param maze      is the maze we are constructing
+     * @param chunk     is the index of the row strip.
+     * @param numChunks is the number of row strips.
+     * @param seed      is the seed of the random bucket choices of this strip.
+     * @param slots     is, per bucket, the edge count when edges is null, otherwise the next free slot.
+     * @param edges     is the array the edges are written to, or null to only count them.
+     */
+    private void scatter(PackedMaze maze, int chunk, int numChunks, long seed, int[] slots, int[] edges) {
+        SplittableRandom chunkRandom = new SplittableRandom(seed);
+        int rowStart = (int) ((long) maze.sizeR * chunk / numChunks);
+        int rowEnd = (int) ((long) maze.sizeR * (chunk + 1) / numChunks);
+        for (int r = rowStart; r < rowEnd; r++) {
+            for (int c = 0, id = r * maze.sizeC; c < maze.sizeC; c++, id++) {
+                for (int dir = 0; dir < PackedMaze.BITS_PER_CELL; dir++) {
+                    if (maze.neighbour(r, c, dir) < 0) {
+                        continue;
+                    }
+                    int bucket = chunkRandom.nextInt(slots.length);
+                    if (edges == null) {
+                        slots[bucket]++;
+                    } else {
+                        edges[slots[bucket]++] = id * PackedMaze.BITS_PER_CELL + dir;
+                    }
+                }
+            }
+        }
+    }
+
+} // end of class KruskalGenerator
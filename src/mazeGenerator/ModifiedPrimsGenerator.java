@@ -1,165 +1,125 @@
 package mazeGenerator;
 
-import maze.Cell;
 import maze.Maze;
+import maze.PackedMaze;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.Random;
+import java.util.SplittableRandom;
 
-import static maze.Maze.*;
 
+public class ModifiedPrimsGenerator implements PackedMazeGenerator {
+    //Random source shared by every maze generated by this instance.
+    private final SplittableRandom random;
 
-public class ModifiedPrimsGenerator implements MazeGenerator {
-
-    @Override
-    public void generateMaze(Maze maze) {
-        //Creates a random variable to select random indexes from Lists.
-        Random random = new Random();
-        //ArrayList of all frontiers found during the generation.
-        ArrayList<Cell> frontiers = new ArrayList<>();
-        //LinkedList of visited cells during generation.
-        LinkedList<Cell> visited = new LinkedList<>();
-        //A list of directions for generation to select from.
-        ArrayList<Integer> directions = new ArrayList<>(Arrays.asList(NORTH, EAST, SOUTH, WEST));
-        if (maze.type == HEX) {
-            directions.add(NORTHEAST);
-            directions.add(NORTHWEST);
-            directions.add(SOUTHEAST);
-            directions.add(SOUTHWEST);
+    public ModifiedPrimsGenerator() {
+        this(new SplittableRandom());
+    }
 
-        }
-        //Starting point, if maze is normal then can be selected from bounds of maze. If a Hex maze, the Col value must be calculated after the row as each row has a different Col bound.
-        Cell startingPoint;
-        if (maze.type == NORMAL) {
-            startingPoint = maze.map[random.nextInt(maze.sizeR)][random.nextInt(maze.sizeC)];
+    /**
+     * @param seed is the seed which fully determines the generated mazes.
+     */
+    public ModifiedPrimsGenerator(long seed) {
+        this(new SplittableRandom(seed));
+    }
 
-        } else {
-            int r = random.nextInt(maze.sizeR);
-            //cBoundValue is calculated after the row has been selected using the formula given in the FAQ notes.
-            int cBoundValue = (int) Math.ceil((double) r / 2) + maze.sizeC;
-            int c;
-            //If row is not even then -1 to the bounds of C.
-            if (r % 2 != 0) {
-                cBoundValue = cBoundValue - 1;
-            }
-            //Select a c value from the calculated bounds
-            c = random.nextInt(cBoundValue);
-            startingPoint = maze.map[r][c];
-        }
-        visited.add(startingPoint);
-        //Find the neighbours of the starting point to begin generation
-        getTheNeighbours(directions, frontiers, maze, startingPoint, visited);
-        //While their are still unvisited cells, apply the primm algorithm.
-        while (visited.size() < maze.sizeR * maze.sizeC) {
-            //Select a random frontier from the frontiers list.
-            Cell selectedFrontier = frontiers.remove(random.nextInt(frontiers.size()));
-            //Find the unvisited adjacent cells and add them to the list adjacent.
-            ArrayList<Cell> adjacent = adjacentFinder(directions, maze, selectedFrontier, visited);
-            //Select an unvisited adjacent cell and then delete the wall between the selectedFrontier and adjacentCell
-            Cell adjacentCell = adjacent.get(random.nextInt(adjacent.size()));
-            deleteWall(directions, maze, adjacentCell, selectedFrontier);
-            //If the selectedFrontier has not been visited, add it to the visited list.
-            if (!visited.contains(selectedFrontier)) {
-                visited.add(selectedFrontier);
-            }
-            //Get the neighbours of the selectedFrontier.
-            getTheNeighbours(directions, frontiers, maze, selectedFrontier, visited);
-        }
+    private ModifiedPrimsGenerator(SplittableRandom random) {
+        this.random = random;
     }
 
+    @Override
+    public void generateMaze(Maze maze) {
+        //Generate on the packed copy of the maze and write the walls back.
+        PackedMaze packed = new PackedMaze(maze);
+        generateMaze(packed);
+        packed.copyTo(maze);
+    }
 
-    /**
-     * Deletes the wall between cell a and b.
-     *
-     * @param maze       is the maze we are constructing
-     * @param directions is the list of directions.
-     * @param a          is a cell on the maze adjacent to b.
-     * @param b          is a cell on the maze adjacent to a.
-     */
-    public void deleteWall(ArrayList<Integer> directions, Maze maze, Cell a, Cell b) {
-        int i = 0;
-        Cell tempCell;
-        //Tests for valid directions which are within the bounds of the maze.
-        while (i < directions.size()) {
-            try {
-                tempCell = maze.map[a.r + deltaR[directions.get(i)]][a.c + deltaC[directions.get(i)]];
-                if (tempCell != null) {
-                    if (tempCell.c == b.c && tempCell.r == b.r) {
-                        //Removes the wall between the cells
-                        a.wall[directions.get(i)].present = false;
-                    }
+    @Override
+    public void generateMaze(PackedMaze maze) {
+        //Bitset of visited cells.
+        long[] visited = new long[PackedMaze.words(maze.numCells)];
+        //Bitset of cells which have been added to the frontier.
+        long[] inFrontier = new long[PackedMaze.words(maze.numCells)];
+        //Frontier cells, removed by swapping the last cell into the selected slot.
+        int[] frontiers = new int[maze.numCells];
+        int numFrontiers = 0;
+        //Scratch arrays for the visited cells adjacent to the selected frontier.
+        int[] adjacentDir = new int[maze.dirs.length];
+        int[] adjacentCell = new int[maze.dirs.length];
+        //Starting point, selected uniformly from every cell of the maze.
+        int startingPoint = random.nextInt(maze.numCells);
+        numFrontiers = visit(maze, startingPoint, visited, inFrontier, frontiers, numFrontiers);
+        //While there are still frontiers, apply the prim algorithm.
+        while (numFrontiers > 0) {
+            //Select a random frontier and remove it from the frontiers array.
+            int index = random.nextInt(numFrontiers);
+            int selectedFrontier = frontiers[index];
+            frontiers[index] = frontiers[--numFrontiers];
+            //Frontiers reached through a tunnel have been visited already.
+            if (PackedMaze.getBit(visited, selectedFrontier)) {
+                continue;
+            }
+            //Find the visited adjacent cells of the selectedFrontier.
+            int numAdjacent = 0;
+            int r = selectedFrontier / maze.sizeC, c = selectedFrontier - r * maze.sizeC;
+            for (int dir : maze.dirs) {
+                int next = maze.neighbour(r, c, dir);
+                if (next >= 0 && PackedMaze.getBit(visited, next)) {
+                    adjacentDir[numAdjacent] = dir;
+                    adjacentCell[numAdjacent++] = next;
                 }
-            } catch (Exception e) { // ignore ArrayIndexOutOfBounds
             }
-            i++;
+            //Select a visited adjacent cell and then delete the wall between the selectedFrontier and adjacentCell
+            int pick = random.nextInt(numAdjacent);
+            maze.removeWall(selectedFrontier, adjacentDir[pick], adjacentCell[pick]);
+            numFrontiers = visit(maze, selectedFrontier, visited, inFrontier, frontiers, numFrontiers);
         }
-
     }
 
     /**
-     * Find valid neighbours of a cell.
+     * Marks a cell, and the other end of its tunnel, as visited and adds their new neighbours to the frontiers.
      *
-     * @param maze       is the maze we are constructing
-     * @param directions is the list of directions.
-     * @param frontiers  is the list of frontiers found during generation.
-     * @param cell       is the cell in the maze for which we are finding neighbours.
-     * @param visited    is the list of visited cells.
+     * @param maze         is the maze we are constructing
+     * @param cell         is the cell being visited.
+     * @param visited      is the bitset of visited cells.
+     * @param inFrontier   is the bitset of cells ever added to the frontiers.
+     * @param frontiers    is the array of frontiers found during generation.
+     * @param numFrontiers is the number of frontiers in the array.
+     * @return the new number of frontiers.
      */
-    public ArrayList<Cell> getTheNeighbours(ArrayList<Integer> directions, ArrayList<Cell> frontiers, Maze maze, Cell cell, LinkedList<Cell> visited) {
-        int i = 0;
-        //Adds all the unvisited neighbouring cells to the frontier list.
-        while (i < directions.size()) {
-            try {
-                if (maze.map[cell.r + deltaR[directions.get(i)]][cell.c + deltaC[directions.get(i)]] != null) {
-                    if ((frontiers.contains(maze.map[cell.r + deltaR[directions.get(i)]][cell.c + deltaC[directions.get(i)]]))) {
-                    } else {
-                        frontiers.add(maze.map[cell.r + deltaR[directions.get(i)]][cell.c + deltaC[directions.get(i)]]);
-                    }
-                }
-            } catch (Exception e) { // ignore ArrayIndexOutOfBounds
-            }
-            i++;
-        }
-        //Removes visited frontiers from frontier list.
-        i = 0;
-        while (i < frontiers.size()) {
-            if (visited.contains(frontiers.get(i))) {
-                frontiers.remove(i);
-                continue;
-            }
-            i++;
+    private int visit(PackedMaze maze, int cell, long[] visited, long[] inFrontier, int[] frontiers, int numFrontiers) {
+        PackedMaze.setBit(visited, cell);
+        numFrontiers = getTheNeighbours(maze, cell, inFrontier, frontiers, numFrontiers);
+        //A tunnel is always open, so its other end is visited at the same time.
+        int other = maze.tunnelTo(cell);
+        if (other >= 0 && !PackedMaze.getBit(visited, other)) {
+            PackedMaze.setBit(visited, other);
+            numFrontiers = getTheNeighbours(maze, other, inFrontier, frontiers, numFrontiers);
         }
-        return frontiers;
+        return numFrontiers;
     }
 
     /**
-     * Finds valid adjacent cells.
+     * Adds the neighbours of a cell which have never been frontiers to the frontiers.
      *
-     * @param maze       is the maze we are constructing
-     * @param directions is the list of directions.
-     * @param cell       is the cell which adjacent cells are being found for.
-     * @param visited    is the list of visited cells.
+     * @param maze         is the maze we are constructing
+     * @param cell         is the cell in the maze for which we are finding neighbours.
+     * @param inFrontier   is the bitset of cells ever added to the frontiers.
+     * @param frontiers    is the array of frontiers found during generation.
+     * @param numFrontiers is the number of frontiers in the array.
+     * @return the new number of frontiers.
      */
-    public ArrayList<Cell> adjacentFinder(ArrayList<Integer> directions, Maze maze, Cell cell, LinkedList<Cell> visited) {
-        ArrayList<Cell> adjacentCells = new ArrayList<>();
-        int i = 0;
-        //Loops to find all adjacent cells that have been visited
-        while (i < directions.size()) {
-            try {
-                if (maze.map[cell.r + deltaR[directions.get(i)]][cell.c + deltaC[directions.get(i)]] != null) {
-                    if ((visited.contains(maze.map[cell.r + deltaR[directions.get(i)]][cell.c + deltaC[directions.get(i)]]) && !adjacentCells.contains(maze.map[cell.r + deltaR[directions.get(i)]][cell.c + deltaC[directions.get(i)]]))) {
-                        adjacentCells.add(maze.map[cell.r + deltaR[directions.get(i)]][cell.c + deltaC[directions.get(i)]]);
-                    }
-                }
-            } catch (Exception e) { // ignore ArrayIndexOutOfBounds
+    private int getTheNeighbours(PackedMaze maze, int cell, long[] inFrontier, int[] frontiers, int numFrontiers) {
+        int r = cell / maze.sizeC, c = cell - r * maze.sizeC;
+        //Each cell enters the frontiers at most once, so the array never overflows.
+        PackedMaze.setBit(inFrontier, cell);
+        for (int dir : maze.dirs) {
+            int next = maze.neighbour(r, c, dir);
+            if (next >= 0 && !PackedMaze.getBit(inFrontier, next)) {
+                PackedMaze.setBit(inFrontier, next);
+                frontiers[numFrontiers++] = next;
             }
-            i++;
         }
-
-        return adjacentCells;
+        return numFrontiers;
     }
 
 } // end of class ModifiedPrimsGenerator
-
@@ -0,0 +1,16 @@
+package mazeGenerator;
+
+import maze.PackedMaze;
+
+/**
+ * Interface of a maze generator which can also work directly on a PackedMaze,
+ * for mazes too large to be stored as Cell objects.
+ */
+public interface PackedMazeGenerator extends MazeGenerator
+{
+	/**
+	 * Function that generate a perfect maze from an all-wall initialized packed maze.
+	 * @param maze The reference of PackedMaze object to generate.
+	 */
+	public void generateMaze(PackedMaze maze);
+} // end of interface PackedMazeGenerator
@@ -1,140 +1,106 @@
 package mazeGenerator;
 
 import maze.Maze;
-import maze.Cell;
-import maze.Wall;
+import maze.PackedMaze;
 
-import java.io.IOException;
-import java.util.Deque;
-import java.util.ArrayDeque;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
-public class RecursiveBacktrackerGenerator implements MazeGenerator {
-
-	@Override
-	public void generateMaze(Maze maze) {
-        /** Local Variable Instantiation **/
-        Random rand = new Random();
-        /** Local Variable Initialisation **/
-        int row = rand.nextInt(maze.sizeR), col = rand.nextInt(maze.sizeC);
-        //int row = rand.nextInt(maze.sizeR), col = rand.nextInt((maze.type == Maze.HEX ? (maze.sizeC + 1) / 2 + maze.sizeC : maze.sizeC));
-        /** Implementation **/
-        System.out.printf("Start Col: %d, Hex Col: %d\n", col, hexStartCol(row, col));
-        if (maze.type != Maze.HEX)
-            recursiveBacktrack(maze, maze.map[row][col], row, col, new ArrayDeque<Integer>());
-        else
-            recursiveBacktrack(maze, maze.map[row][(col = hexStartCol(row, col))], row, col, new ArrayDeque<Integer>());
-	} // end of generateMaze()
+public class RecursiveBacktrackerGenerator implements PackedMazeGenerator {
+    /**
+     * Instance Variables
+     */
+    private final SplittableRandom rand;
 
     /**
-     * Ensure the starting column is contained within the hex maze accordingly as the row increases.
-     * @param row is the pseudorandom generated starting row
-     * @param col is the pseudorandom generated starting col
-     * @return the appropriate starting col
+     * Construct a generator with an arbitrary seed.
      */
-    private int hexStartCol(int row, int col) {
-	    if (row == 0)
-	        return (col + 1)/2 + col;
-	    else
-            return (col == 0 ? (int)Math.ceil((double)row/2) : (col + 1)/2) + col;
+    public RecursiveBacktrackerGenerator() {
+        this(new SplittableRandom());
     }
 
     /**
-     * Recursively pave a pseudorandom generated pathway through the maze using Depth First Search (DFS) algorithm.
-     * @param maze is the maze we are constructing
-     * @param neighbour is an unvisited cell within the maze
-     * @param row holds what row in the maze the neighbour is at
-     * @param col holds what column in the maze the neighbour is at
+     * Construct a generator whose mazes are fully determined by the seed.
+     * @param seed is the seed of the random number generator
      */
-    private void recursiveBacktrack(Maze maze, Cell neighbour, int row, int col, Deque<Integer> directions) {
-        /** Local Variable Initialisation **/
-        int direction;
-        if(neighbour.tunnelTo !=null){
-        neighbour = neighbour.tunnelTo;
-        }
+    public RecursiveBacktrackerGenerator(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private RecursiveBacktrackerGenerator(SplittableRandom rand) {
+        this.rand = rand;
+    }
+
+	@Override
+	public void generateMaze(Maze maze) {
         /** Implementation **/
-        System.out.printf("Row: %d, Col: %d\n", row, col);
-        if ((direction = nextDirection(maze, neighbour)) != -1) {
-            directions.push(direction);
-            System.out.printf("Backtrack: r(%d) + dR(%d) = %d, c(%d) + dC(%d) = %d\n", row, Maze.deltaR[direction], row + Maze.deltaR[direction], col, Maze.deltaC[direction], col + Maze.deltaC[direction]);
-            neighbour.wall[direction].present = false;
-            recursiveBacktrack(maze, (neighbour = maze.map[row + Maze.deltaR[direction]][col + Maze.deltaC[direction]]),
-                    neighbour.r, neighbour.c, directions);
-        } else if (directions.size() != 0) {
-            direction = directions.pop();
-            recursiveBacktrack(maze, (neighbour = maze.map[row + Maze.deltaR[Maze.oppoDir[direction]]][col + Maze.deltaC[Maze.oppoDir[direction]]]),
-                    neighbour.r, neighbour.c, directions);
-        }
-    } // end of recursiveBacktrack()
+        PackedMaze packed = new PackedMaze(maze);
+        generateMaze(packed);
+        packed.copyTo(maze);
+	} // end of generateMaze()
 
     /**
-     * Determine the next unvisited direction in the maze to progress with wall deconstruction.
+     * Pave a pseudorandom generated pathway through the maze using Depth First Search (DFS) algorithm.
+     * The backtracking path is kept on an explicit stack of cell ids, so the depth of the search is
+     * only bounded by the heap and not by the thread stack.
      * @param maze is the maze we are constructing
-     * @param cell is our current position in the maze
-     * @return the unvisited direction if any remain
      */
-    private int nextDirection(Maze maze, Cell cell) {
+    @Override
+    public void generateMaze(PackedMaze maze) {
         /** Local Variable Instantiation **/
-        Random rand = new Random();
+        long[] visited = new long[PackedMaze.words(maze.numCells)];
+        int[] stack = new int[Math.min(maze.numCells, 1024) + 2];
+        int[] candidateDir = new int[maze.dirs.length], candidateCell = new int[maze.dirs.length];
         /** Local Variable Initialisation **/
-        int[] directions = (maze.type == Maze.HEX ? new int[]{ Maze.NORTHEAST, Maze.EAST, Maze.SOUTHEAST, Maze.SOUTHWEST, Maze.WEST, Maze.NORTHWEST } : new int[]{ Maze.NORTH, Maze.EAST, Maze.SOUTH, Maze.WEST });
-        int value = rand.nextInt(directions.length);
+        int top = 0, cell = rand.nextInt(maze.numCells);
         /** Implementation **/
-        // Check all walls to determine whether there is an unvisited neighbour starting from random
-        for (int i = value; i < directions.length; i++) {
-            System.out.printf("Direction: %d\n", i);
-            if (cell.wall[directions[i]] != null && !isOutOfBounds(maze, cell, directions[i]) && isCellUnvisited(maze, cell, directions[i]))
-                return directions[i];
-         }for (int i = 0; i < value; i++)
-            if (cell.wall[directions[i]] != null && !isOutOfBounds(maze, cell, directions[i]) && isCellUnvisited(maze, cell, directions[i]))
-                return directions[i];
-        return -1;
-    } // end of nextDirection()
+        PackedMaze.setBit(visited, cell);
+        stack[top++] = cell;
+        top = enterTunnel(maze, cell, visited, stack, top);
+        while (top > 0) {
+            int id = stack[top - 1], row = id / maze.sizeC, col = id - row * maze.sizeC, candidates = 0;
+            // Collect every unvisited neighbour of the cell on top of the stack
+            for (int direction : maze.dirs) {
+                int next = maze.neighbour(row, col, direction);
+                if (next >= 0 && !PackedMaze.getBit(visited, next)) {
+                    candidateDir[candidates] = direction;
+                    candidateCell[candidates++] = next;
+                }
+            }
+            // Backtrack once the cell is a dead end
+            if (candidates == 0) {
+                top--;
+                continue;
+            }
+            int pick = rand.nextInt(candidates);
+            maze.removeWall(id, candidateDir[pick], candidateCell[pick]);
+            PackedMaze.setBit(visited, candidateCell[pick]);
+            // room for the neighbour and the other end of its tunnel
+            if (top + 2 > stack.length)
+                stack = Arrays.copyOf(stack, (int) Math.min(2L * stack.length, maze.numCells + 2L));
+            stack[top++] = candidateCell[pick];
+            top = enterTunnel(maze, candidateCell[pick], visited, stack, top);
+        }
+    } // end of generateMaze()
 
     /**
-     * Evaluate if the cell we would traverse to given a particular direction is currently unvisited.
+     * A tunnel is always open, so the cell at its other end is visited together with the cell
+     * we just entered; otherwise the tunnel would close a loop later on.
      * @param maze is the maze we are constructing
-     * @param cell is our current position in the maze
-     * @param direction is the direction we want to evaluate
-     * @return whether the cell is unvisited
-     */
-    private boolean isCellUnvisited(Maze maze, Cell cell, int direction) {
-        /** Local Variable Initialisation **/
-        Cell neighbourCell;
-        /** Implementation **/
-        // Ensure the neighbouring cell isn't null
-        if ((neighbourCell = maze.map[cell.r + Maze.deltaR[direction]][cell.c + Maze.deltaC[direction]]) == null)
-            return false;
-	    // Check whether a neighbouring cell is unvisited
-        for (Wall wall : neighbourCell.wall)
-            if (wall != null && wall.present == false)
-                return false;
-        return true;
-    } // end of isCellUnvisited()
-
-    /**
-     * Evaluate if the cell we would traverse to given a particular direction is outside the mazes boundaries.
-     * @param maze is the maze we're constructing
-     * @param cell is our current position in the maze
-     * @param direction is the direction we want to evaluate
-     * @return whether the direction leads out of bounds
+     * @param cell is the cell we just visited
+     * @param visited is the bitset of visited cells
+     * @param stack is the backtracking stack
+     * @param top is the current size of the stack
+     * @return the new size of the stack
      */
-    private boolean isOutOfBounds(Maze maze, Cell cell, int direction) {
+    private int enterTunnel(PackedMaze maze, int cell, long[] visited, int[] stack, int top) {
         /** Local Variable Initialisation **/
-	    int deltaR = cell.r + Maze.deltaR[direction], deltaC = cell.c + Maze.deltaC[direction];
+        int other = maze.tunnelTo(cell);
         /** Implementation **/
-	    if (maze.type != maze.HEX && (deltaR >= maze.sizeR || deltaR < 0 || deltaC >= maze.sizeC || deltaC < 0))
-	        return true;
-	    else if (maze.type == maze.HEX && (deltaR >= maze.sizeR || deltaR < 0 || deltaC >= ((maze.sizeC + 1)/2 + maze.sizeC) || deltaC < 0))
-            return true;
-	    return false;
-    } // end of isOutOfBounds()
-    public void stop() {
-        try {
-            System.in.read();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-    }
-} // end of class RecursiveBacktrackerGenerator
\ No newline at end of file
+        if (other < 0 || PackedMaze.getBit(visited, other))
+            return top;
+        PackedMaze.setBit(visited, other);
+        stack[top++] = other;
+        return top;
+    } // end of enterTunnel()
+} // end of class RecursiveBacktrackerGenerator
@@ -0,0 +1,237 @@
+package mazeGenerator;
+
+import maze.Maze;
+import maze.PackedMaze;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Recursive division: a rectangle is cut in two by a wall line with a single passage and both
+ * halves are divided again until they are one cell wide, which leaves an open corridor.
+ * The halves are independent, so they are filled in parallel on a ForkJoinPool; every task only
+ * knocks down walls inside its own rectangle plus the one passage through its dividing line.
+ */
+public class RecursiveDivisionGenerator implements PackedMazeGenerator {
+    /**
+     * Rectangles with at most this many cells are divided without forking new tasks.
+     */
+    private static final int SEQUENTIAL_AREA = 1 << 12;
+
+    /**
+     * Instance Variables
+     */
+    private final SplittableRandom rand;
+    private final int parallelism;
+
+    /**
+     * Construct a generator with an arbitrary seed, using every available core.
+     */
+    public RecursiveDivisionGenerator() {
+        this(new SplittableRandom().nextLong(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construct a generator whose mazes are fully determined by the seed, whatever the parallelism.
+     * @param seed is the seed of the random number generator
+     * @param parallelism is the number of worker threads
+     */
+    public RecursiveDivisionGenerator(long seed, int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        this.rand = new SplittableRandom(seed);
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void generateMaze(Maze maze) {
+        /** Implementation **/
+        PackedMaze packed = new PackedMaze(maze);
+        generateMaze(packed);
+        packed.copyTo(maze);
+    } // end of generateMaze()
+
+    @Override
+    public void generateMaze(PackedMaze maze) {
+        /** Implementation **/
+        if (maze.type == Maze.HEX)
+            throw new IllegalArgumentException("RecursiveDivisionGenerator only generates rectangular mazes");
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Division(maze, 0, 0, maze.sizeR, maze.sizeC, rand.split()));
+        } finally {
+            pool.shutdown();
+        }
+        breakTunnelLoops(maze, rand);
+    } // end of generateMaze()
+
+    /**
+     * Every tunnel joins two cells which the generated tree already connects. Rebuilding a random
+     * wall on the path between its two ends removes that loop, and the tunnel itself reconnects
+     * the two parts, so the maze stays perfect.
+     * @param maze is the perfect maze, ignoring tunnels, we are constructing
+     * @param rand is the source of the random wall choice
+     */
+    static void breakTunnelLoops(PackedMaze maze, SplittableRandom rand) {
+        /** Local Variable Instantiation **/
+        if (maze.sizeTunnel == 0)
+            return;
+        // tunnels whose loop has been broken already are part of the tree
+        long[] joined = new long[PackedMaze.words(maze.numCells)];
+        int[] parent = new int[maze.numCells], queue = new int[maze.numCells];
+        byte[] parentDir = new byte[maze.numCells];
+        Arrays.fill(parent, -1);
+        int tail = 0;
+        /** Implementation **/
+        for (int from = 0; from < maze.numCells; from++) {
+            int to = maze.tunnelTo(from);
+            if (to <= from)
+                continue;
+            // Only the cells the last search queued have a parent, so only they are reset
+            for (int i = 0; i < tail; i++)
+                parent[queue[i]] = -1;
+            // Breadth first search from one end of the tunnel to the other
+            int head = 0;
+            tail = 0;
+            parent[from] = from;
+            queue[tail++] = from;
+            while (head < tail && parent[to] < 0) {
+                int id = queue[head++];
+                for (int direction : maze.dirs) {
+                    int next = maze.neighbour(id, direction);
+                    if (next >= 0 && parent[next] < 0 && !maze.isWall(id, direction)) {
+                        parent[next] = id;
+                        parentDir[next] = (byte) direction;
+                        queue[tail++] = next;
+                    }
+                }
+                int next = maze.tunnelTo(id);
+                if (next >= 0 && parent[next] < 0 && PackedMaze.getBit(joined, id)) {
+                    parent[next] = id;
+                    parentDir[next] = -1;
+                    queue[tail++] = next;
+                }
+            }
+            PackedMaze.setBit(joined, from);
+            PackedMaze.setBit(joined, to);
+            if (parent[to] < 0)
+                continue;
+            // Rebuild one of the walls along the path
+            int numWalls = 0;
+            for (int id = to; id != from; id = parent[id])
+                if (parentDir[id] >= 0)
+                    numWalls++;
+            if (numWalls == 0)
+                continue;
+            int pick = rand.nextInt(numWalls);
+            for (int id = to; id != from; id = parent[id])
+                if (parentDir[id] >= 0 && pick-- == 0) {
+                    maze.setWall(parent[id], parentDir[id], true);
+                    break;
+                }
+        }
+    } // end of breakTunnelLoops()
+
+    /**
+     * Division of the rectangle of h x w cells whose lower left cell is (r0, c0).
+     */
+    private static class Division extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final PackedMaze maze;
+        private final int r0, c0, h, w;
+        private final SplittableRandom rand;
+
+        Division(PackedMaze maze, int r0, int c0, int h, int w, SplittableRandom rand) {
+            this.maze = maze;
+            this.r0 = r0;
+            this.c0 = c0;
+            this.h = h;
+            this.w = w;
+            this.rand = rand;
+        }
+
+        @Override
+        protected void compute() {
+            /** Implementation **/
+            if ((long) h * w <= SEQUENTIAL_AREA) {
+                divide(maze, r0, c0, h, w, rand);
+                return;
+            }
+            // The cut goes across the longer side, which has more than one cell as h * w > SEQUENTIAL_AREA,
+            // so a dividing line exists; the other side may be a single cell, cut() allows that
+            if (cutRows(h, w, rand)) {
+                int k = cut(maze, r0, c0, h, w, true, rand);
+                invokeAll(new Division(maze, r0, c0, k, w, rand.split()),
+                        new Division(maze, r0 + k, c0, h - k, w, rand.split()));
+            } else {
+                int k = cut(maze, r0, c0, h, w, false, rand);
+                invokeAll(new Division(maze, r0, c0, h, k, rand.split()),
+                        new Division(maze, r0, c0 + k, h, w - k, rand.split()));
+            }
+        }
+    }
+
+    /**
+     * Sequential division of a rectangle, see Division.
+     */
+    private static void divide(PackedMaze maze, int r0, int c0, int h, int w, SplittableRandom rand) {
+        /** Implementation **/
+        while (h > 1 && w > 1) {
+            // Divide the smaller half by recursion and carry on with the other one
+            boolean rows = cutRows(h, w, rand);
+            int k = cut(maze, r0, c0, h, w, rows, rand);
+            if (rows) {
+                if (k <= h - k) {
+                    divide(maze, r0, c0, k, w, rand);
+                    r0 += k;
+                    h -= k;
+                } else {
+                    divide(maze, r0 + k, c0, h - k, w, rand);
+                    h = k;
+                }
+            } else {
+                if (k <= w - k) {
+                    divide(maze, r0, c0, h, k, rand);
+                    c0 += k;
+                    w -= k;
+                } else {
+                    divide(maze, r0, c0 + k, h, w - k, rand);
+                    w = k;
+                }
+            }
+        }
+        // One cell wide: an open corridor
+        int id = r0 * maze.sizeC + c0;
+        if (h == 1)
+            for (int c = 0; c < w - 1; c++, id++)
+                maze.removeWallConcurrent(id, Maze.EAST, id + 1);
+        else
+            for (int r = 0; r < h - 1; r++, id += maze.sizeC)
+                maze.removeWallConcurrent(id, Maze.NORTH, id + maze.sizeC);
+    } // end of divide()
+
+    /**
+     * Cut across the longer side, or a random side for a square.
+     */
+    private static boolean cutRows(int h, int w, SplittableRandom rand) {
+        return h > w || (h == w && rand.nextBoolean());
+    } // end of cutRows()
+
+    /**
+     * Draw a random dividing line with one random passage through it.
+     * @return the size of the lower (rows) or left (columns) part, in [1, h - 1] or [1, w - 1]
+     */
+    private static int cut(PackedMaze maze, int r0, int c0, int h, int w, boolean rows, SplittableRandom rand) {
+        /** Implementation **/
+        if (rows) {
+            int k = 1 + rand.nextInt(h - 1), id = (r0 + k - 1) * maze.sizeC + c0 + rand.nextInt(w);
+            maze.removeWallConcurrent(id, Maze.NORTH, id + maze.sizeC);
+            return k;
+        }
+        int k = 1 + rand.nextInt(w - 1), id = (r0 + rand.nextInt(h)) * maze.sizeC + c0 + k - 1;
+        maze.removeWallConcurrent(id, Maze.EAST, id + 1);
+        return k;
+    } // end of cut()
+} // end of class RecursiveDivisionGenerator
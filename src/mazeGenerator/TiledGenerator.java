@@ -0,0 +1,176 @@
+package mazeGenerator;
+
+import maze.DisjointSet;
+import maze.Maze;
+import maze.PackedMaze;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Cuts the maze into tiles, generates a perfect maze inside every tile concurrently with any
+ * base generator, then opens one passage on each edge of a random spanning tree of the tile
+ * grid, so the whole maze is perfect and every tile keeps the texture of the base algorithm.
+ */
+public class TiledGenerator implements PackedMazeGenerator {
+    /**
+     * Instance Variables
+     */
+    private final LongFunction<? extends MazeGenerator> baseGenerator;
+    private final int tilesPerSide;
+    private final int parallelism;
+    private final SplittableRandom rand;
+
+    /**
+     * Construct a generator using every available core.
+     * @param baseGenerator creates the generator of one tile from a seed; each tile gets its own generator
+     * @param tilesPerSide is the number of tiles along each side of the maze
+     */
+    public TiledGenerator(LongFunction<? extends MazeGenerator> baseGenerator, int tilesPerSide) {
+        this(baseGenerator, tilesPerSide, new SplittableRandom().nextLong(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construct a generator whose mazes are fully determined by the seed, whatever the parallelism,
+     * provided the base generators are fully determined by their seeds.
+     * @param baseGenerator creates the generator of one tile from a seed; each tile gets its own generator
+     * @param tilesPerSide is the number of tiles along each side of the maze
+     * @param seed is the seed of the random number generator
+     * @param parallelism is the number of worker threads
+     */
+    public TiledGenerator(LongFunction<? extends MazeGenerator> baseGenerator, int tilesPerSide, long seed, int parallelism) {
+        if (tilesPerSide < 1 || parallelism < 1)
+            throw new IllegalArgumentException("Tiles per side and parallelism must be at least 1");
+        this.baseGenerator = baseGenerator;
+        this.tilesPerSide = tilesPerSide;
+        this.parallelism = parallelism;
+        this.rand = new SplittableRandom(seed);
+    }
+
+    @Override
+    public void generateMaze(Maze maze) {
+        /** Implementation **/
+        PackedMaze packed = new PackedMaze(maze);
+        generateMaze(packed);
+        packed.copyTo(maze);
+    } // end of generateMaze()
+
+    @Override
+    public void generateMaze(PackedMaze maze) {
+        /** Local Variable Initialisation **/
+        // Hexagon tiles must start on an even row to have the same geometry as the whole maze
+        int[] rowBound = bounds(maze.sizeR, maze.type == Maze.HEX ? 2 : 1);
+        int[] colBound = bounds(maze.sizeC, 1);
+        int tileRows = rowBound.length - 1, tileCols = colBound.length - 1;
+        long[] tileSeed = new long[tileRows * tileCols];
+        for (int i = 0; i < tileSeed.length; i++)
+            tileSeed[i] = rand.nextLong();
+        /** Implementation **/
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, tileSeed.length).parallel().forEach(tile ->
+                    generateTile(maze, rowBound[tile / tileCols], colBound[tile % tileCols],
+                            rowBound[tile / tileCols + 1], colBound[tile % tileCols + 1], tileSeed[tile]))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        stitch(maze, rowBound, colBound);
+        RecursiveDivisionGenerator.breakTunnelLoops(maze, rand);
+    } // end of generateMaze()
+
+    /**
+     * Split [0, size) into at most tilesPerSide ranges whose starts are multiples of step.
+     * @return the boundaries of the ranges, from 0 to size
+     */
+    private int[] bounds(int size, int step) {
+        /** Implementation **/
+        int units = (size + step - 1) / step, tiles = Math.min(tilesPerSide, units);
+        int[] bound = new int[tiles + 1];
+        for (int i = 0; i < tiles; i++)
+            bound[i] = (int) ((long) units * i / tiles) * step;
+        bound[tiles] = size;
+        return bound;
+    } // end of bounds()
+
+    /**
+     * Generate a perfect maze inside one tile and copy its open walls to the maze.
+     * @param maze is the maze we are constructing
+     * @param r0 is the first row of the tile
+     * @param c0 is the first column of the tile
+     * @param r1 is the row after the tile
+     * @param c1 is the column after the tile
+     * @param seed is the seed of the base generator of this tile
+     */
+    private void generateTile(PackedMaze maze, int r0, int c0, int r1, int c1, long seed) {
+        /** Local Variable Initialisation **/
+        int h = r1 - r0, w = c1 - c0;
+        PackedMaze tile = new PackedMaze(maze.type == Maze.HEX ? Maze.HEX : Maze.NORMAL, h, w, 0, 0, h - 1, w - 1, new ArrayList<int[]>());
+        MazeGenerator generator = baseGenerator.apply(seed);
+        /** Implementation **/
+        if (generator instanceof PackedMazeGenerator) {
+            ((PackedMazeGenerator) generator).generateMaze(tile);
+        } else {
+            Maze tileMaze = tile.toMaze();
+            generator.generateMaze(tileMaze);
+            tile = new PackedMaze(tileMaze);
+        }
+        for (int r = 0, id = 0; r < h; r++)
+            for (int c = 0; c < w; c++, id++)
+                for (int direction = 0; direction < PackedMaze.BITS_PER_CELL; direction++)
+                    if (tile.neighbour(r, c, direction) >= 0 && !tile.isWall(id, direction)) {
+                        int cell = (r0 + r) * maze.sizeC + c0 + c;
+                        maze.removeWallConcurrent(cell, direction, maze.neighbour(cell, direction));
+                    }
+    } // end of generateTile()
+
+    /**
+     * Join the tiles along a random spanning tree of the tile grid, with one random passage per tree edge.
+     * @param maze is the maze we are constructing
+     * @param rowBound are the row boundaries of the tiles
+     * @param colBound are the column boundaries of the tiles
+     */
+    private void stitch(PackedMaze maze, int[] rowBound, int[] colBound) {
+        /** Local Variable Initialisation **/
+        int tileRows = rowBound.length - 1, tileCols = colBound.length - 1;
+        // seam s < tileRows * (tileCols - 1) is between a tile and its EAST neighbour, the others are between a tile and its NORTH neighbour
+        int eastSeams = tileRows * (tileCols - 1), numSeams = eastSeams + (tileRows - 1) * tileCols;
+        int[] seams = new int[numSeams];
+        for (int i = 0; i < numSeams; i++)
+            seams[i] = i;
+        DisjointSet tiles = new DisjointSet(tileRows * tileCols);
+        /** Implementation **/
+        // Kruskal's algorithm on the tile grid, with the seams in random order
+        for (int i = numSeams - 1; i >= 0; i--) {
+            int j = rand.nextInt(i + 1), seam = seams[j];
+            seams[j] = seams[i];
+            int tr, tc, cell, direction;
+            if (seam < eastSeams) {
+                tr = seam / (tileCols - 1);
+                tc = seam % (tileCols - 1);
+                if (!tiles.union(tr * tileCols + tc, tr * tileCols + tc + 1))
+                    continue;
+                int r = rowBound[tr] + rand.nextInt(rowBound[tr + 1] - rowBound[tr]);
+                cell = r * maze.sizeC + colBound[tc + 1] - 1;
+                direction = Maze.EAST;
+            } else {
+                tr = (seam - eastSeams) / tileCols;
+                tc = (seam - eastSeams) % tileCols;
+                if (!tiles.union(tr * tileCols + tc, (tr + 1) * tileCols + tc))
+                    continue;
+                int c = colBound[tc] + rand.nextInt(colBound[tc + 1] - colBound[tc]);
+                cell = (rowBound[tr + 1] - 1) * maze.sizeC + c;
+                direction = Maze.NORTH;
+            }
+            maze.removeWall(cell, direction, maze.neighbour(cell, direction));
+        }
+    } // end of stitch()
+} // end of class TiledGenerator
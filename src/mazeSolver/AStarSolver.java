@@ -0,0 +1,224 @@
+package mazeSolver;
+
+import maze.Maze;
+import maze.MazeGraph;
+import maze.PackedMaze;
+
+import java.util.Arrays;
+
+/**
+ * A* search from the entrance to the exit. Every move costs 1 and the heuristic is the
+ * distance on an empty board of the maze type: Manhattan distance for square cells, hex
+ * distance for hexagon cells, and for tunnel mazes the distance to the exit on an empty board
+ * where the tunnels may be taken, any number of them one after the other.
+ * The open set is a binary heap of (f, cell id) packed in longs; improved cells are pushed
+ * again and stale entries are skipped, so the path is a shortest one even where the tunnel
+ * heuristic is not consistent.
+ */
+public class AStarSolver implements PathSolver {
+	/**
+	 * Instance Variables
+	 */
+	private final boolean drawExplored;
+	private boolean solved = false;
+	private int explored = 0;
+	private int[] path = null;
+
+	// maze being solved and its geometry
+	private MazeGraph maze;
+	private int cols, type, exitR, exitQ;
+	// tunnel ends, sorted, and the cost of crossing each tunnel then going on to the exit
+	private int[] tunnelEnd = new int[0];
+	private int[] viaCost = new int[0];
+
+	// open set ordered by f, each entry is f << 32 | id
+	private final LongMinHeap open = new LongMinHeap();
+
+	/**
+	 * Construct a solver which only draws the path it finds.
+	 */
+	public AStarSolver() {
+		this(false);
+	}
+
+	/**
+	 * @param drawExplored is whether every expanded cell gets a foot print, rather than only the path
+	 */
+	public AStarSolver(boolean drawExplored) {
+		this.drawExplored = drawExplored;
+	}
+
+	@Override
+	public void solveMaze(MazeGraph maze) {
+		/** Local Variable Instantiation **/
+		int numCells = maze.numCells(), entrance = maze.entranceId(), exit = maze.exitId();
+		int[] directions = maze.directions();
+		// g[id] is the length of the best known path to id, parent[id] the cell it comes from,
+		// h[id] its estimate, worked out once when id is first reached
+		int[] g = new int[numCells], parent = new int[numCells], h = new int[numCells];
+		long[] closed = new long[PackedMaze.words(numCells)];
+		/** Local Variable Initialisation **/
+		initHeuristic(maze);
+		Arrays.fill(g, Integer.MAX_VALUE);
+		g[entrance] = 0;
+		parent[entrance] = entrance;
+		h[entrance] = estimate(entrance);
+		open.clear();
+		push(h[entrance], entrance);
+		solved = false;
+		explored = 0;
+		path = null;
+		/** Implementation **/
+		while (!open.isEmpty()) {
+			long top = open.pop();
+			int id = (int) top;
+			// skip entries pushed before a shorter path to id was found
+			if ((int) (top >>> 32) != g[id] + h[id])
+				continue;
+			if (!PackedMaze.getBit(closed, id)) {
+				PackedMaze.setBit(closed, id);
+				explored++;
+			}
+			if (id == exit) {
+				solved = true;
+				break;
+			}
+			for (int direction : directions)
+				relax(maze.passage(id, direction), id, g, parent, h);
+			relax(maze.tunnelTo(id), id, g, parent, h);
+		}
+		if (solved)
+			path = PathSolver.pathTo(parent, exit);
+		if (drawExplored) {
+			for (int id = 0; id < numCells; id++)
+				if (PackedMaze.getBit(closed, id))
+					maze.drawFtPrt(id);
+		} else if (solved) {
+			for (int id : path)
+				maze.drawFtPrt(id);
+		}
+	} // end of solveMaze()
+
+	/**
+	 * Reach next from id, if that is shorter than what was known.
+	 */
+	private void relax(int next, int id, int[] g, int[] parent, int[] h) {
+		if (next < 0 || g[id] + 1 >= g[next])
+			return;
+		if (g[next] == Integer.MAX_VALUE)
+			h[next] = estimate(next);
+		g[next] = g[id] + 1;
+		parent[next] = id;
+		push(g[next] + h[next], next);
+	} // end of relax()
+
+	/**
+	 * Remember the exit position and, for tunnel mazes, what each tunnel end is worth.
+	 */
+	private void initHeuristic(MazeGraph maze) {
+		/** Implementation **/
+		this.maze = maze;
+		cols = maze.cols();
+		type = maze.mazeType();
+		exitR = maze.exitId() / cols;
+		exitQ = maze.column(maze.exitId());
+		tunnelEnd = new int[0];
+		viaCost = new int[0];
+		if (type != Maze.TUNNEL)
+			return;
+		int numEnds = 0;
+		for (int id = 0; id < maze.numCells(); id++)
+			if (maze.tunnelTo(id) >= 0)
+				numEnds++;
+		tunnelEnd = new int[numEnds];
+		int[] peer = new int[numEnds];
+		for (int id = 0, i = 0; id < maze.numCells(); id++) {
+			if (maze.tunnelTo(id) >= 0)
+				tunnelEnd[i++] = id;
+		}
+		for (int i = 0; i < numEnds; i++)
+			peer[i] = Arrays.binarySearch(tunnelEnd, maze.tunnelTo(tunnelEnd[i]));
+		// Dijkstra's algorithm over the tunnel ends: toExit[i] is the distance from end i to
+		// the exit on the empty board, walking between ends and crossing tunnels at cost 1
+		int[] toExit = new int[numEnds];
+		boolean[] settled = new boolean[numEnds];
+		for (int i = 0; i < numEnds; i++)
+			toExit[i] = emptyDistance(maze, tunnelEnd[i], maze.exitId());
+		for (int n = 0; n < numEnds; n++) {
+			int u = -1;
+			for (int i = 0; i < numEnds; i++)
+				if (!settled[i] && (u < 0 || toExit[i] < toExit[u]))
+					u = i;
+			settled[u] = true;
+			// The other end of u now has its cost through u: walk to it, cross, go on from u
+			int via = peer[u];
+			for (int j = 0; j < numEnds; j++)
+				if (!settled[j])
+					toExit[j] = Math.min(toExit[j], emptyDistance(maze, tunnelEnd[j], tunnelEnd[via]) + 1 + toExit[u]);
+		}
+		viaCost = new int[numEnds];
+		for (int i = 0; i < numEnds; i++)
+			viaCost[i] = 1 + toExit[peer[i]];
+	} // end of initHeuristic()
+
+	/**
+	 * Lower bound of the path length from cell id to the exit.
+	 */
+	private int estimate(int id) {
+		/** Implementation **/
+		int r = id / cols, q = maze.column(id);
+		int best = distance(r, q, exitR, exitQ);
+		for (int i = 0; i < tunnelEnd.length; i++) {
+			int end = tunnelEnd[i];
+			best = Math.min(best, distance(r, q, end / cols, maze.column(end)) + viaCost[i]);
+		}
+		return best;
+	} // end of estimate()
+
+	/**
+	 * Number of moves between two positions of map[][] when there are no walls.
+	 */
+	private int distance(int r1, int q1, int r2, int q2) {
+		return steps(type, r2 - r1, q2 - q1);
+	} // end of distance()
+
+	/**
+	 * Number of moves between two cells of a maze when there are no walls nor tunnels.
+	 * @param maze is the maze
+	 * @param a is the id of one cell
+	 * @param b is the id of the other cell
+	 */
+	static int emptyDistance(MazeGraph maze, int a, int b) {
+		int cols = maze.cols();
+		return steps(maze.mazeType(), b / cols - a / cols, maze.column(b) - maze.column(a));
+	} // end of emptyDistance()
+
+	/**
+	 * Number of moves for a row and map[][] column difference.
+	 */
+	private static int steps(int type, int dr, int dq) {
+		// NORTHEAST and SOUTHWEST change row and column together
+		if (type == Maze.HEX && (dr ^ dq) >= 0)
+			return Math.max(Math.abs(dr), Math.abs(dq));
+		return Math.abs(dr) + Math.abs(dq);
+	} // end of steps()
+
+	private void push(int f, int id) {
+		open.push(((long) f << 32) | id);
+	} // end of push()
+
+	@Override
+	public boolean isSolved() {
+		return solved;
+	} // end of isSolved()
+
+	@Override
+	public int cellsExplored() {
+		return explored;
+	} // end of cellsExplored()
+
+	@Override
+	public int[] path() {
+		return path;
+	} // end of path()
+} // end of class AStarSolver
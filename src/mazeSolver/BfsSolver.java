@@ -0,0 +1,98 @@
+package mazeSolver;
+
+import maze.MazeGraph;
+
+import java.util.Arrays;
+
+/**
+ * Breadth first search from the entrance, so the path found is a shortest one.
+ * The queue and the parent of every cell are int arrays indexed by cell id,
+ * which keeps it linear and lets it solve PackedMaze mazes of 10^8 cells.
+ */
+public class BfsSolver implements PathSolver {
+	/**
+	 * Instance Variables
+	 */
+	private final boolean drawExplored;
+	private boolean solved = false;
+	private int explored = 0;
+	private int[] path = null;
+
+	/**
+	 * Construct a solver which only draws the path it finds.
+	 */
+	public BfsSolver() {
+		this(false);
+	}
+
+	/**
+	 * @param drawExplored is whether every explored cell gets a foot print, rather than only the path
+	 */
+	public BfsSolver(boolean drawExplored) {
+		this.drawExplored = drawExplored;
+	}
+
+	@Override
+	public void solveMaze(MazeGraph maze) {
+		/** Local Variable Instantiation **/
+		int numCells = maze.numCells(), entrance = maze.entranceId(), exit = maze.exitId();
+		int[] directions = maze.directions();
+		// parent[id] is the cell id was reached from, -1 while unreached
+		int[] parent = new int[numCells];
+		// every cell is queued at most once, so the queue never wraps around
+		int[] queue = new int[numCells];
+		/** Local Variable Initialisation **/
+		Arrays.fill(parent, -1);
+		int head = 0, tail = 0;
+		parent[entrance] = entrance;
+		queue[tail++] = entrance;
+		solved = false;
+		path = null;
+		/** Implementation **/
+		while (head < tail) {
+			int id = queue[head++];
+			if (id == exit) {
+				solved = true;
+				break;
+			}
+			for (int direction : directions) {
+				int next = maze.passage(id, direction);
+				if (next >= 0 && parent[next] < 0) {
+					parent[next] = id;
+					queue[tail++] = next;
+				}
+			}
+			int next = maze.tunnelTo(id);
+			if (next >= 0 && parent[next] < 0) {
+				parent[next] = id;
+				queue[tail++] = next;
+			}
+		}
+		// Cells taken out of the queue; each one was reached from an earlier one, so they stay connected
+		explored = head;
+		if (solved)
+			path = PathSolver.pathTo(parent, exit);
+		if (drawExplored) {
+			for (int i = 0; i < head; i++)
+				maze.drawFtPrt(queue[i]);
+		} else if (solved) {
+			for (int id : path)
+				maze.drawFtPrt(id);
+		}
+	} // end of solveMaze()
+
+	@Override
+	public boolean isSolved() {
+		return solved;
+	} // end of isSolved()
+
+	@Override
+	public int cellsExplored() {
+		return explored;
+	} // end of cellsExplored()
+
+	@Override
+	public int[] path() {
+		return path;
+	} // end of path()
+} // end of class BfsSolver
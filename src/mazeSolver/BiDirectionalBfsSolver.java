@@ -0,0 +1,168 @@
+package mazeSolver;
+
+import maze.MazeGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bidirectional breadth first search: one frontier grows from the entrance on the calling
+ * thread while the other grows from the exit on a second thread. Cells are claimed with a
+ * compare-and-set on a shared owner array, and both searches stop as soon as one of them
+ * reaches a cell owned by the other side.
+ */
+public class BiDirectionalBfsSolver implements PathSolver {
+	// owners of a cell
+	private static final int FREE = 0, FROM_ENTRANCE = 1, FROM_EXIT = 2;
+
+	/**
+	 * Instance Variables
+	 */
+	private boolean solved = false;
+	private int explored = 0;
+	private int[] path = null;
+
+	// shared by both searches of the current solve
+	private AtomicIntegerArray owner;
+	private int[] parent;
+	// the two cells, packed in a long, where the frontiers touched, or -1
+	private final AtomicLong meeting = new AtomicLong(-1);
+	private volatile boolean stop;
+
+	@Override
+	public void solveMaze(MazeGraph maze) {
+		/** Local Variable Instantiation **/
+		int entrance = maze.entranceId(), exit = maze.exitId();
+		owner = new AtomicIntegerArray(maze.numCells());
+		parent = new int[maze.numCells()];
+		/** Local Variable Initialisation **/
+		meeting.set(-1);
+		stop = false;
+		solved = false;
+		path = null;
+		int[] claimed = new int[2];
+		Throwable[] failure = new Throwable[1];
+		/** Implementation **/
+		if (entrance == exit) {
+			solved = true;
+			explored = 1;
+			path = new int[] { entrance };
+			maze.drawFtPrt(entrance);
+			return;
+		}
+		// Both roots are claimed up front, so a fast side cannot take the root of a slow one
+		owner.set(entrance, FROM_ENTRANCE);
+		owner.set(exit, FROM_EXIT);
+		parent[entrance] = entrance;
+		parent[exit] = exit;
+		Thread fromExit = new Thread(() -> {
+			try {
+				claimed[1] = search(maze, exit, FROM_EXIT);
+			} catch (Throwable e) {
+				failure[0] = e;
+				stop = true;
+			}
+		}, "bfs-from-exit");
+		fromExit.start();
+		try {
+			claimed[0] = search(maze, entrance, FROM_ENTRANCE);
+		} finally {
+			stop = true;
+			joinUninterruptibly(fromExit);
+		}
+		if (failure[0] != null)
+			throw new IllegalStateException(failure[0]);
+		explored = claimed[0] + claimed[1];
+		long meet = meeting.get();
+		if (meet < 0)
+			return;
+		solved = true;
+		// Walk back from the meeting cells to the root of their own side
+		int[] a = PathSolver.pathTo(parent, (int) (meet >>> 32)), b = PathSolver.pathTo(parent, (int) meet);
+		if (a[0] != entrance) {
+			int[] t = a;
+			a = b;
+			b = t;
+		}
+		// The entrance half in order, then the exit half backwards
+		path = Arrays.copyOf(a, a.length + b.length);
+		for (int i = 0; i < b.length; i++)
+			path[path.length - 1 - i] = b[i];
+		for (int id : path)
+			maze.drawFtPrt(id);
+	} // end of solveMaze()
+
+	/**
+	 * Breadth first search from root, which is already claimed, claiming cells for side until
+	 * the frontiers touch, the other search stops, or every cell reachable from root is claimed.
+	 * @return the number of cells claimed by this side
+	 */
+	private int search(MazeGraph maze, int root, int side) {
+		/** Local Variable Instantiation **/
+		int[] directions = maze.directions();
+		int[] queue = new int[1024];
+		/** Local Variable Initialisation **/
+		int head = 0, tail = 0;
+		queue[tail++] = root;
+		/** Implementation **/
+		while (head < tail && !stop) {
+			int id = queue[head++];
+			if (tail + directions.length + 1 > queue.length)
+				queue = Arrays.copyOf(queue, queue.length * 2);
+			for (int direction : directions)
+				tail = claim(maze.passage(id, direction), id, side, queue, tail);
+			tail = claim(maze.tunnelTo(id), id, side, queue, tail);
+		}
+		// Exhausting one side without touching the other means there is no path
+		stop = true;
+		return tail;
+	} // end of search()
+
+	/**
+	 * Claim cell next, reached from id, for side.
+	 * @return the new tail of the queue
+	 */
+	private int claim(int next, int id, int side, int[] queue, int tail) {
+		if (next < 0)
+			return tail;
+		int current = owner.get(next);
+		if (current == FREE && owner.compareAndSet(next, FREE, side)) {
+			parent[next] = id;
+			queue[tail++] = next;
+		} else if (current != side && owner.get(next) != side) {
+			// Lost the race or found the other frontier: either way next belongs to the other side
+			meeting.compareAndSet(-1, ((long) id << 32) | next);
+			stop = true;
+		}
+		return tail;
+	} // end of claim()
+
+	private static void joinUninterruptibly(Thread thread) {
+		boolean interrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	} // end of joinUninterruptibly()
+
+	@Override
+	public boolean isSolved() {
+		return solved;
+	} // end of isSolved()
+
+	@Override
+	public int cellsExplored() {
+		return explored;
+	} // end of cellsExplored()
+
+	@Override
+	public int[] path() {
+		return path;
+	} // end of path()
+} // end of class BiDirectionalBfsSolver
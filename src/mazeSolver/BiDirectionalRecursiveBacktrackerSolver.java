@@ -5,7 +5,7 @@ import maze.Cell;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Implements the BiDirectional recursive backtracking maze solving algorithm.
@@ -16,6 +16,24 @@ public class BiDirectionalRecursiveBacktrackerSolver implements MazeSolver {
      */
     private List<Cell> entranceVisited = null, exitVisited = null;
     private boolean solved = false;
+    private final SplittableRandom rand;
+    private static final int[] hexDirections = { Maze.NORTHEAST, Maze.EAST, Maze.SOUTHEAST, Maze.SOUTHWEST, Maze.WEST, Maze.NORTHWEST };
+    private static final int[] squareDirections = { Maze.NORTH, Maze.EAST, Maze.SOUTH, Maze.WEST };
+
+    /**
+     * Construct a solver with an arbitrary seed.
+     */
+    public BiDirectionalRecursiveBacktrackerSolver() {
+        this.rand = new SplittableRandom();
+    }
+
+    /**
+     * Construct a solver whose random choices are fully determined by the seed.
+     * @param seed is the seed of the random number generator
+     */
+    public BiDirectionalRecursiveBacktrackerSolver(long seed) {
+        this.rand = new SplittableRandom(seed);
+    }
 
     /**
      * Using the wall follower algorithm solve a particularly generated maze instance.
@@ -59,26 +77,20 @@ public class BiDirectionalRecursiveBacktrackerSolver implements MazeSolver {
         }
         // Move the fromEntrance cell
         if ((direction = nextDirection(maze, fromEntrance, entranceVisited)) != -1) {
-            System.out.printf("[Entrance]: CurrR (%d), CurrC (%d), Next Direction (%d)\n", fromEntrance.r, fromEntrance.c, direction);
-            fromEntrance = maze.map[fromEntrance.r + Maze.deltaR[direction]][fromEntrance.c + Maze.deltaC[direction]];
+            fromEntrance = maze.cellAt(maze.neighbour(maze.cellId(fromEntrance), direction));
             entranceBacktrack = 1;
         } else if ((entranceVisited.size() - entranceBacktrack) != -1) {
-            System.out.printf("Entrance Backtrack\n");
             fromEntrance = entranceVisited.get(entranceVisited.size() - entranceBacktrack++);
         } else {
-            System.out.printf("Entrance Standoff\n");
             return;
         }
         // Move the fromExit cell
         if ((direction = nextDirection(maze, fromExit, exitVisited)) != -1) {
-            System.out.printf("[Exit]: CurrR (%d), CurrC (%d), Next Direction (%d)\n", fromExit.r, fromExit.c, direction);
-            fromExit = maze.map[fromExit.r + Maze.deltaR[direction]][fromExit.c + Maze.deltaC[direction]];
+            fromExit = maze.cellAt(maze.neighbour(maze.cellId(fromExit), direction));
             exitBacktrack = 1;
         } else if ((exitVisited.size() - exitBacktrack) != -1) {
-            System.out.printf("Exit Backtrack\n");
             fromExit = exitVisited.get(exitVisited.size() - exitBacktrack++);
         } else {
-            System.out.printf("Exit Standoff\n");
             return;
         }
         // Recursive Call
@@ -93,19 +105,15 @@ public class BiDirectionalRecursiveBacktrackerSolver implements MazeSolver {
      * @return the next valid direction if one exists
      */
     private int nextDirection(Maze maze, Cell position, List<Cell> visited) {
-        /** Local Variable Instantiation **/
-        Random rand = new Random();
         /** Local Variable Initialisation **/
-        int[] directions = (maze.type == Maze.HEX ? new int[]{ Maze.NORTHEAST, Maze.EAST, Maze.SOUTHEAST, Maze.SOUTHWEST, Maze.WEST, Maze.NORTHWEST } : new int[]{ Maze.NORTH, Maze.EAST, Maze.SOUTH, Maze.WEST });
+        int[] directions = (maze.type == Maze.HEX ? hexDirections : squareDirections);
         int value = rand.nextInt(directions.length);
         /** Implementation **/
         for (int i = value; i < directions.length; i++) {
-            System.out.printf("Checking Direction (%d) [Iteration %d]\n", directions[i], i);
             if (checkDirection(maze, position, directions, i, visited))
                 return directions[i];
         }
         for (int i = 0; i < value; i++) {
-            System.out.printf("Checking Direction (%d) [Iteration %d]\n", directions[i], i);
             if (checkDirection(maze, position, directions, i, visited))
                 return directions[i];
         }
@@ -152,7 +160,7 @@ public class BiDirectionalRecursiveBacktrackerSolver implements MazeSolver {
      */
     private boolean isCellUnvisited(Maze maze, Cell cell, int direction, List<Cell> visited) {
         /** Local Variable Initialisation **/
-        Cell neighbour = maze.map[cell.r + Maze.deltaR[direction]][cell.c + Maze.deltaC[direction]];
+        Cell neighbour = maze.cellAt(maze.neighbour(maze.cellId(cell), direction));
         /** Implementation **/
         return !visited.contains(neighbour);
     } // end of isCellUnvisited()
@@ -165,14 +173,8 @@ public class BiDirectionalRecursiveBacktrackerSolver implements MazeSolver {
      * @return whether the direction leads out of bounds
      */
     private boolean isOutOfBounds(Maze maze, Cell cell, int direction) {
-        /** Local Variable Initialisation **/
-        int deltaR = cell.r + Maze.deltaR[direction], deltaC = cell.c + Maze.deltaC[direction];
         /** Implementation **/
-        if (maze.type != maze.HEX && (deltaR >= maze.sizeR || deltaR < 0 || deltaC >= maze.sizeC || deltaC < 0))
-            return true;
-        else if (maze.type == maze.HEX && (deltaR >= maze.sizeR || deltaR < 0 || deltaC > ((deltaC + 1)/2 + deltaC) || deltaC < 0))
-            return true;
-        return false;
+        return maze.neighbour(maze.cellId(cell), direction) < 0;
     } // end of isOutOfBounds()
 
     /**
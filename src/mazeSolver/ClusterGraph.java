@@ -0,0 +1,333 @@
+package mazeSolver;
+
+import maze.Maze;
+import maze.MazeGraph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Abstraction of a maze for hierarchical path finding (HPA*). The maze is cut into square
+ * clusters of size x size cells. A cell with an open side, or a tunnel, to another cluster is a
+ * node, and every cluster stores the distances between its nodes inside the cluster, so the
+ * search runs over nodes only: moves between clusters cost 1, moves inside a cluster cost the
+ * stored distance. Clusters are built in parallel and rebuilt only when wallsChanged() marks
+ * them. route() returns the nodes along a shortest route; refine() turns it into cells, one
+ * cluster at a time, when the cells are needed.
+ */
+public class ClusterGraph {
+	/**
+	 * Instance Variables
+	 */
+	private final MazeGraph maze;
+	private final int[] directions;
+	private final int size, rows, cols, clusterCols;
+	// nodes[k] are the node cells of cluster k, distance[k][i * m + j] the distance between
+	// nodes i and j of the m nodes of cluster k, -1 when they are not connected inside it
+	private final int[][] nodes, distance;
+	// index of a cell in the nodes of its cluster, -1 if it is not a node
+	private final int[] nodeIndex;
+	private final boolean[] dirty;
+	private boolean anyDirty = true;
+
+	// scratch of the searches: best known distance and previous route cell of every touched cell
+	private final int[] best, previous;
+	private int[] touched = new int[64];
+	private int numTouched = 0;
+	private final LongMinHeap open = new LongMinHeap();
+	private int settled = 0;
+
+	/**
+	 * Build the abstraction of a maze.
+	 * @param maze is the maze to find routes in
+	 * @param size is the number of rows and columns of a cluster
+	 */
+	public ClusterGraph(MazeGraph maze, int size) {
+		if (size < 1)
+			throw new IllegalArgumentException("Cluster size must be at least 1: " + size);
+		this.maze = maze;
+		this.size = size;
+		directions = maze.directions();
+		rows = maze.rows();
+		cols = maze.cols();
+		clusterCols = (cols + size - 1) / size;
+		int numClusters = (rows + size - 1) / size * clusterCols;
+		nodes = new int[numClusters][];
+		distance = new int[numClusters][];
+		dirty = new boolean[numClusters];
+		Arrays.fill(dirty, true);
+		nodeIndex = new int[maze.numCells()];
+		best = new int[maze.numCells()];
+		previous = new int[maze.numCells()];
+		Arrays.fill(best, Integer.MAX_VALUE);
+		rebuild();
+	} // end of ClusterGraph()
+
+	/**
+	 * Tell the abstraction that walls or the tunnel of a cell changed; the clusters around
+	 * it are rebuilt before the next route.
+	 * @param cell is the cell whose sides changed
+	 */
+	public void wallsChanged(int cell) {
+		/** Implementation **/
+		dirty[clusterOf(cell)] = true;
+		int r = cell / cols, c = cell - r * cols;
+		// The neighbours may be in other clusters and be nodes because of this cell
+		for (int direction : directions) {
+			int nr = r + Maze.deltaR[direction], nc = c + Maze.deltaC[direction];
+			nc += maze.colOffset(r) - maze.colOffset(nr);
+			if (nr >= 0 && nr < rows && nc >= 0 && nc < cols)
+				dirty[clusterOf(nr * cols + nc)] = true;
+		}
+		int other = maze.tunnelTo(cell);
+		if (other >= 0)
+			dirty[clusterOf(other)] = true;
+		anyDirty = true;
+	} // end of wallsChanged()
+
+	/**
+	 * Rebuild every cluster marked dirty, in parallel.
+	 */
+	private void rebuild() {
+		if (!anyDirty)
+			return;
+		IntStream.range(0, nodes.length).parallel().filter(k -> dirty[k]).forEach(this::buildCluster);
+		Arrays.fill(dirty, false);
+		anyDirty = false;
+	} // end of rebuild()
+
+	/**
+	 * Find the nodes of cluster k and the distances between them.
+	 */
+	private void buildCluster(int k) {
+		/** Local Variable Initialisation **/
+		int r0 = k / clusterCols * size, c0 = k % clusterCols * size;
+		int r1 = Math.min(rows, r0 + size), c1 = Math.min(cols, c0 + size);
+		int[] found = new int[(r1 - r0) * (c1 - c0)];
+		int m = 0;
+		/** Implementation **/
+		for (int r = r0; r < r1; r++) {
+			for (int c = c0; c < c1; c++) {
+				int id = r * cols + c;
+				nodeIndex[id] = -1;
+				for (int s = 0; s <= directions.length; s++) {
+					int next = side(id, s);
+					if (next >= 0 && clusterOf(next) != k) {
+						nodeIndex[id] = m;
+						found[m++] = id;
+						break;
+					}
+				}
+			}
+		}
+		int[] clusterNodes = Arrays.copyOf(found, m), dist = new int[m * m];
+		for (int i = 0; i < m; i++) {
+			int[] local = search(k, clusterNodes[i], -1, null);
+			for (int j = 0; j < m; j++)
+				dist[i * m + j] = local[localIndex(k, clusterNodes[j])];
+		}
+		nodes[k] = clusterNodes;
+		distance[k] = dist;
+	} // end of buildCluster()
+
+	/**
+	 * Breadth first search from a cell, never leaving its cluster.
+	 * @param k is the cluster of from
+	 * @param from is the start cell
+	 * @param to is the cell to stop at, or -1 to reach the whole cluster
+	 * @param parent receives the local index of the cell each cell is reached from, or null
+	 * @return the distance of every cell of the cluster, by local index, -1 if it is not reached
+	 */
+	private int[] search(int k, int from, int to, int[] parent) {
+		/** Local Variable Initialisation **/
+		int r0 = k / clusterCols * size, c0 = k % clusterCols * size;
+		int cells = (Math.min(rows, r0 + size) - r0) * (Math.min(cols, c0 + size) - c0);
+		int[] dist = new int[cells], queue = new int[cells];
+		Arrays.fill(dist, -1);
+		int head = 0, tail = 0;
+		dist[localIndex(k, from)] = 0;
+		queue[tail++] = from;
+		/** Implementation **/
+		while (head < tail) {
+			int id = queue[head++], local = localIndex(k, id);
+			if (id == to)
+				break;
+			for (int s = 0; s <= directions.length; s++) {
+				int next = side(id, s);
+				if (next < 0 || clusterOf(next) != k)
+					continue;
+				int nextLocal = localIndex(k, next);
+				if (dist[nextLocal] < 0) {
+					dist[nextLocal] = dist[local] + 1;
+					if (parent != null)
+						parent[nextLocal] = local;
+					queue[tail++] = next;
+				}
+			}
+		}
+		return dist;
+	} // end of search()
+
+	/**
+	 * A* over the nodes, plus the two end cells, which join the nodes of their own cluster.
+	 * @param from is the start cell
+	 * @param to is the end cell
+	 * @return the cells of the route where it enters or leaves a cluster, from and to included,
+	 * or null if there is no route
+	 */
+	public int[] route(int from, int to) {
+		/** Local Variable Initialisation **/
+		rebuild();
+		int fromCluster = clusterOf(from), toCluster = clusterOf(to);
+		int[] fromDist = search(fromCluster, from, -1, null), toDist = search(toCluster, to, -1, null);
+		// heuristics are only admissible without tunnels
+		boolean guided = maze.mazeType() != Maze.TUNNEL;
+		settled = 0;
+		reach(from, 0, from);
+		open.push((long) estimate(from, to, guided) << 32 | from);
+		/** Implementation **/
+		while (!open.isEmpty()) {
+			long top = open.pop();
+			int u = (int) top;
+			if ((int) (top >>> 32) != best[u] + estimate(u, to, guided))
+				continue;
+			settled++;
+			if (u == to)
+				break;
+			int k = clusterOf(u);
+			// The end cells join the nodes of their cluster, and each other in the same cluster
+			if (u == from) {
+				for (int v : nodes[fromCluster])
+					relax(u, v, fromDist[localIndex(fromCluster, v)], to, guided);
+				if (fromCluster == toCluster)
+					relax(u, to, fromDist[localIndex(fromCluster, to)], to, guided);
+			}
+			if (nodeIndex[u] < 0)
+				continue;
+			int i = nodeIndex[u], m = nodes[k].length;
+			for (int j = 0; j < m; j++)
+				relax(u, nodes[k][j], distance[k][i * m + j], to, guided);
+			if (k == toCluster)
+				relax(u, to, toDist[localIndex(k, u)], to, guided);
+			for (int s = 0; s <= directions.length; s++) {
+				int next = side(u, s);
+				if (next >= 0 && clusterOf(next) != k)
+					relax(u, next, 1, to, guided);
+			}
+		}
+		int[] route = null;
+		if (best[to] != Integer.MAX_VALUE) {
+			int length = 1;
+			for (int id = to; id != from; id = previous[id])
+				length++;
+			route = new int[length];
+			for (int id = to; length > 0; id = previous[id])
+				route[--length] = id;
+		}
+		// Leave the scratch arrays as new for the next route
+		for (int i = 0; i < numTouched; i++)
+			best[touched[i]] = Integer.MAX_VALUE;
+		numTouched = 0;
+		open.clear();
+		return route;
+	} // end of route()
+
+	private void relax(int u, int v, int cost, int to, boolean guided) {
+		if (cost < 0 || v == u || best[u] + cost >= best[v])
+			return;
+		reach(v, best[u] + cost, u);
+		open.push((long) (best[v] + estimate(v, to, guided)) << 32 | v);
+	} // end of relax()
+
+	private void reach(int v, int dist, int from) {
+		if (best[v] == Integer.MAX_VALUE) {
+			if (numTouched == touched.length)
+				touched = Arrays.copyOf(touched, numTouched * 2);
+			touched[numTouched++] = v;
+		}
+		best[v] = dist;
+		previous[v] = from;
+	} // end of reach()
+
+	private int estimate(int id, int to, boolean guided) {
+		return guided ? AStarSolver.emptyDistance(maze, id, to) : 0;
+	} // end of estimate()
+
+	/**
+	 * Cells of a route, as returned by route().
+	 * @return every cell from the first to the last cell of the route
+	 */
+	public int[] refine(int[] route) {
+		/** Local Variable Instantiation **/
+		int[][] segments = new int[route.length][];
+		int length = 1;
+		/** Implementation **/
+		for (int i = 1; i < route.length; i++) {
+			segments[i] = refine(route[i - 1], route[i]);
+			length += segments[i].length;
+		}
+		int[] cells = new int[length];
+		cells[0] = route[0];
+		for (int i = 1, pos = 1; i < route.length; pos += segments[i++].length)
+			System.arraycopy(segments[i], 0, cells, pos, segments[i].length);
+		return cells;
+	} // end of refine()
+
+	/**
+	 * Cells of one step of a route: either a move between clusters or a walk inside one.
+	 * @return the cells after a up to b, b included
+	 */
+	public int[] refine(int a, int b) {
+		/** Implementation **/
+		int k = clusterOf(a);
+		if (clusterOf(b) != k)
+			return new int[] { b };
+		int r0 = k / clusterCols * size, c0 = k % clusterCols * size, w = Math.min(cols, c0 + size) - c0;
+		int[] parent = new int[(Math.min(rows, r0 + size) - r0) * w];
+		int[] dist = search(k, a, b, parent);
+		int local = localIndex(k, b);
+		int[] cells = new int[dist[local]];
+		for (int i = cells.length - 1; i >= 0; i--, local = parent[local])
+			cells[i] = (r0 + local / w) * cols + c0 + local % w;
+		return cells;
+	} // end of refine()
+
+	/**
+	 * Cell reached through side s of cell id, s being an index of directions or directions.length for the tunnel.
+	 * @return the cell on the other side, or -1 if the side is closed
+	 */
+	private int side(int id, int s) {
+		return s < directions.length ? maze.passage(id, directions[s]) : maze.tunnelTo(id);
+	} // end of side()
+
+	private int clusterOf(int id) {
+		int r = id / cols;
+		return r / size * clusterCols + (id - r * cols) / size;
+	} // end of clusterOf()
+
+	/**
+	 * Index of a cell of cluster k among the cells of the cluster, row by row.
+	 */
+	private int localIndex(int k, int id) {
+		int r = id / cols, c0 = k % clusterCols * size;
+		return (r - k / clusterCols * size) * (Math.min(cols, c0 + size) - c0) + id - r * cols - c0;
+	} // end of localIndex()
+
+	/**
+	 * @return the number of nodes and end cells settled by the last route()
+	 */
+	public int settledNodes() {
+		return settled;
+	} // end of settledNodes()
+
+	/**
+	 * @return the number of nodes of the abstraction
+	 */
+	public int numNodes() {
+		rebuild();
+		int count = 0;
+		for (int[] clusterNodes : nodes)
+			count += clusterNodes.length;
+		return count;
+	} // end of numNodes()
+} // end of class ClusterGraph
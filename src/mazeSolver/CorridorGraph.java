@@ -0,0 +1,256 @@
+package mazeSolver;
+
+import maze.MazeGraph;
+
+import java.util.Arrays;
+
+/**
+ * Maze graph with its corridors contracted. Cells with exactly two open sides (tunnels count
+ * as sides) only lead on, so the nodes are the other cells, i.e. junctions and dead ends, plus
+ * the entrance and the exit. Each corridor between two nodes becomes one edge weighted by its
+ * number of moves. Edges are stored in compressed sparse row form: the edges leaving node u are
+ * target[offset[u] .. offset[u + 1] - 1]. An edge also records the side of u it starts by, so a
+ * path over nodes is expanded back to cells by walking the corridors again.
+ */
+public class CorridorGraph {
+	/**
+	 * Instance Variables
+	 */
+	private final MazeGraph maze;
+	private final int[] directions;
+	// node index of every cell, -1 for corridor cells
+	private final int[] nodeOf;
+	// cell of every node
+	private final int[] nodeCell;
+	// compressed sparse row edges
+	private final int[] offset, target, weight;
+	private final byte[] firstSide;
+	// end cell of the last corridor walked
+	private int corridorEnd;
+	// number of nodes settled by the last search
+	private int settled = 0;
+
+	/**
+	 * Contract the corridors of a maze.
+	 * @param maze is the maze to contract; its walls must not change afterwards
+	 */
+	public CorridorGraph(MazeGraph maze) {
+		/** Local Variable Instantiation **/
+		this.maze = maze;
+		directions = maze.directions();
+		int numCells = maze.numCells();
+		nodeOf = new int[numCells];
+		/** Implementation **/
+		// Number the nodes and count the edges leaving them, one per open side
+		int numNodes = 0;
+		long numEdges = 0;
+		for (int id = 0; id < numCells; id++) {
+			int degree = degree(id);
+			if (degree != 2 || id == maze.entranceId() || id == maze.exitId() || isLoopBack(id)) {
+				nodeOf[id] = numNodes++;
+				numEdges += degree;
+			} else {
+				nodeOf[id] = -1;
+			}
+		}
+		nodeCell = new int[numNodes];
+		offset = new int[numNodes + 1];
+		target = new int[(int) numEdges];
+		weight = new int[(int) numEdges];
+		firstSide = new byte[(int) numEdges];
+		// Walk every corridor from both of its ends
+		for (int id = 0, u = 0, e = 0; id < numCells; id++) {
+			if (nodeOf[id] < 0)
+				continue;
+			nodeCell[u] = id;
+			offset[u++] = e;
+			for (int k = 0; k <= directions.length; k++) {
+				int next = side(id, k);
+				if (next < 0)
+					continue;
+				weight[e] = walk(id, next, null, 0);
+				target[e] = nodeOf[corridorEnd];
+				firstSide[e++] = (byte) k;
+			}
+		}
+		offset[numNodes] = (int) numEdges;
+	} // end of CorridorGraph()
+
+	/**
+	 * Cell reached through side k of cell id, k being an index of directions or directions.length for the tunnel.
+	 * @return the cell on the other side, or -1 if the side is closed
+	 */
+	private int side(int id, int k) {
+		return k < directions.length ? maze.passage(id, directions[k]) : maze.tunnelTo(id);
+	} // end of side()
+
+	private int degree(int id) {
+		int count = 0;
+		for (int k = 0; k <= directions.length; k++)
+			if (side(id, k) >= 0)
+				count++;
+		return count;
+	} // end of degree()
+
+	/**
+	 * A cell whose two open sides lead to the same cell, through a wall and a tunnel, cannot be walked through.
+	 */
+	private boolean isLoopBack(int id) {
+		int first = -1;
+		for (int k = 0; k <= directions.length; k++) {
+			int next = side(id, k);
+			if (next >= 0 && next == first)
+				return true;
+			if (next >= 0)
+				first = next;
+		}
+		return false;
+	} // end of isLoopBack()
+
+	/**
+	 * Walk a corridor from node from through cell next until the next node, which is left in corridorEnd.
+	 * @param cells is where the cells after from are written, the end node included, or null
+	 * @param pos is the position in cells of the first of them
+	 * @return the number of moves
+	 */
+	private int walk(int from, int next, int[] cells, int pos) {
+		/** Implementation **/
+		int previous = from, id = next, moves = 1;
+		while (true) {
+			if (cells != null)
+				cells[pos + moves - 1] = id;
+			if (nodeOf[id] >= 0)
+				break;
+			// A corridor cell has one open side besides the one we came by
+			int ahead = -1;
+			for (int k = 0; k <= directions.length && ahead < 0; k++) {
+				ahead = side(id, k);
+				if (ahead == previous)
+					ahead = -1;
+			}
+			previous = id;
+			id = ahead;
+			moves++;
+		}
+		corridorEnd = id;
+		return moves;
+	} // end of walk()
+
+	/**
+	 * @return the number of nodes
+	 */
+	public int numNodes() {
+		return nodeCell.length;
+	} // end of numNodes()
+
+	/**
+	 * @return the number of edges, counting each corridor once in each direction
+	 */
+	public int numEdges() {
+		return target.length;
+	} // end of numEdges()
+
+	/**
+	 * @return the node of a cell, or -1 if the cell is inside a corridor
+	 */
+	public int node(int cell) {
+		return nodeOf[cell];
+	} // end of node()
+
+	/**
+	 * @return the cell of a node
+	 */
+	public int cell(int node) {
+		return nodeCell[node];
+	} // end of cell()
+
+	/**
+	 * @return the first edge leaving node u; its edges end before firstEdge(u + 1)
+	 */
+	public int firstEdge(int u) {
+		return offset[u];
+	} // end of firstEdge()
+
+	/**
+	 * @return the node edge e leads to
+	 */
+	public int target(int e) {
+		return target[e];
+	} // end of target()
+
+	/**
+	 * @return the number of moves along edge e
+	 */
+	public int weight(int e) {
+		return weight[e];
+	} // end of weight()
+
+	/**
+	 * Write the cells along edge e, which leaves node u.
+	 * @param cells is where the cells after u are written, the target node included
+	 * @param pos is the position in cells of the first of them
+	 * @return the number of cells written, i.e. weight(e)
+	 */
+	public int expand(int u, int e, int[] cells, int pos) {
+		int from = nodeCell[u];
+		return walk(from, side(from, firstSide[e]), cells, pos);
+	} // end of expand()
+
+	/**
+	 * Dijkstra's algorithm over the nodes.
+	 * @param from is the start node
+	 * @param to is the end node
+	 * @return the cells of a shortest path from the cell of from to the cell of to, or null if there is none
+	 */
+	public int[] shortestPath(int from, int to) {
+		/** Local Variable Instantiation **/
+		int numNodes = numNodes();
+		// distance[u] is the best known length to u, via[u] the edge it was reached by
+		int[] distance = new int[numNodes], via = new int[numNodes];
+		int[] edgeFrom = new int[numNodes];
+		LongMinHeap open = new LongMinHeap();
+		/** Local Variable Initialisation **/
+		Arrays.fill(distance, Integer.MAX_VALUE);
+		distance[from] = 0;
+		via[from] = -1;
+		open.push(from);
+		settled = 0;
+		/** Implementation **/
+		while (!open.isEmpty()) {
+			long top = open.pop();
+			int u = (int) top;
+			if ((int) (top >>> 32) != distance[u])
+				continue;
+			settled++;
+			if (u == to)
+				break;
+			for (int e = offset[u]; e < offset[u + 1]; e++) {
+				int v = target[e], d = distance[u] + weight[e];
+				if (d < distance[v]) {
+					distance[v] = d;
+					via[v] = e;
+					edgeFrom[v] = u;
+					open.push(((long) d << 32) | v);
+				}
+			}
+		}
+		if (distance[to] == Integer.MAX_VALUE)
+			return null;
+		// Expand the edges from the end back to the start
+		int[] cells = new int[distance[to] + 1];
+		int pos = cells.length;
+		for (int v = to; v != from; v = edgeFrom[v]) {
+			pos -= weight[via[v]];
+			expand(edgeFrom[v], via[v], cells, pos);
+		}
+		cells[0] = nodeCell[from];
+		return cells;
+	} // end of shortestPath()
+
+	/**
+	 * @return the number of nodes settled by the last shortestPath()
+	 */
+	public int settledNodes() {
+		return settled;
+	} // end of settledNodes()
+} // end of class CorridorGraph
@@ -0,0 +1,59 @@
+package mazeSolver;
+
+import maze.MazeGraph;
+
+/**
+ * Contracts the corridors of the maze into a CorridorGraph and searches it with Dijkstra's
+ * algorithm, then draws the expanded cell path. The graph of the last maze is kept, so solving
+ * the same maze again only repeats the search.
+ */
+public class CorridorSolver implements PathSolver {
+	/**
+	 * Instance Variables
+	 */
+	private boolean solved = false;
+	private int explored = 0;
+	private int[] path = null;
+	private MazeGraph lastMaze = null;
+	private CorridorGraph graph = null;
+
+	@Override
+	public void solveMaze(MazeGraph maze) {
+		/** Implementation **/
+		if (maze != lastMaze) {
+			graph = new CorridorGraph(maze);
+			lastMaze = maze;
+		}
+		path = graph.shortestPath(graph.node(maze.entranceId()), graph.node(maze.exitId()));
+		explored = graph.settledNodes();
+		solved = path != null;
+		if (solved)
+			for (int id : path)
+				maze.drawFtPrt(id);
+	} // end of solveMaze()
+
+	/**
+	 * @return the corridor graph of the last maze solved
+	 */
+	public CorridorGraph graph() {
+		return graph;
+	} // end of graph()
+
+	@Override
+	public boolean isSolved() {
+		return solved;
+	} // end of isSolved()
+
+	/**
+	 * @return the number of nodes, rather than cells, settled by the search
+	 */
+	@Override
+	public int cellsExplored() {
+		return explored;
+	} // end of cellsExplored()
+
+	@Override
+	public int[] path() {
+		return path;
+	} // end of path()
+} // end of class CorridorSolver
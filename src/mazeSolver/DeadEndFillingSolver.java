@@ -0,0 +1,106 @@
+package mazeSolver;
+
+import maze.MazeGraph;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Dead-end filling: every dead end other than the entrance and the exit is filled in, and
+ * filling it may turn the cell it led to into a new dead end, until only the corridor from
+ * the entrance to the exit is left. In a perfect maze that corridor is the solution.
+ * Dead ends are found by a parallel scan and filled concurrently; the number of open sides
+ * of every cell is a counter updated atomically, so the thread whose fill brings a cell
+ * down to one open side is the one which carries on filling from it.
+ */
+public class DeadEndFillingSolver implements MazeGraphSolver {
+	/**
+	 * Instance Variables
+	 */
+	private boolean solved = false;
+	private int explored = 0;
+
+	@Override
+	public void solveMaze(MazeGraph maze) {
+		/** Local Variable Instantiation **/
+		int numCells = maze.numCells(), entrance = maze.entranceId(), exit = maze.exitId();
+		// degree[id] is the number of open sides of id leading to unfilled cells, 0 once id is filled
+		AtomicIntegerArray degree = new AtomicIntegerArray(numCells);
+		/** Implementation **/
+		IntStream.range(0, numCells).parallel().forEach(id -> degree.set(id, openSides(maze, id)));
+		// Only cells which were dead ends before any filling start a fill
+		IntStream.range(0, numCells).parallel().forEach(id -> {
+			if (id != entrance && id != exit && openSides(maze, id) == 1)
+				fill(maze, degree, id, entrance, exit);
+		});
+		explored = numCells;
+		solved = false;
+		// Walk the corridor which is left from the entrance to the exit
+		int[] directions = maze.directions();
+		int previous = -1, position = entrance;
+		maze.drawFtPrt(position);
+		for (int steps = 0; position != exit && steps < numCells; steps++) {
+			int next = -1;
+			for (int i = 0; i < directions.length && next < 0; i++)
+				next = unfilled(degree, maze.passage(position, directions[i]), previous);
+			if (next < 0)
+				next = unfilled(degree, maze.tunnelTo(position), previous);
+			if (next < 0)
+				return;
+			previous = position;
+			position = next;
+			maze.drawFtPrt(position);
+		}
+		solved = position == exit;
+	} // end of solveMaze()
+
+	/**
+	 * Fill the dead end id, then every cell which becomes a dead end because of it.
+	 */
+	private void fill(MazeGraph maze, AtomicIntegerArray degree, int id, int entrance, int exit) {
+		/** Local Variable Initialisation **/
+		int[] directions = maze.directions();
+		/** Implementation **/
+		while (id >= 0) {
+			degree.set(id, 0);
+			int next = -1;
+			for (int i = 0; i < directions.length && next < 0; i++)
+				next = unfilled(degree, maze.passage(id, directions[i]), -1);
+			if (next < 0)
+				next = unfilled(degree, maze.tunnelTo(id), -1);
+			if (next < 0)
+				return;
+			// Whoever takes the last but one open side of next fills it
+			int before = degree.getAndDecrement(next);
+			id = before == 2 && next != entrance && next != exit ? next : -1;
+		}
+	} // end of fill()
+
+	/**
+	 * @return next if it is a cell which has not been filled and is not previous, otherwise -1
+	 */
+	private static int unfilled(AtomicIntegerArray degree, int next, int previous) {
+		return next >= 0 && next != previous && degree.get(next) > 0 ? next : -1;
+	} // end of unfilled()
+
+	/**
+	 * Number of open sides of a cell, counting its tunnel.
+	 */
+	private static int openSides(MazeGraph maze, int id) {
+		int count = maze.tunnelTo(id) >= 0 ? 1 : 0;
+		for (int direction : maze.directions())
+			if (maze.passage(id, direction) >= 0)
+				count++;
+		return count;
+	} // end of openSides()
+
+	@Override
+	public boolean isSolved() {
+		return solved;
+	} // end of isSolved()
+
+	@Override
+	public int cellsExplored() {
+		return explored;
+	} // end of cellsExplored()
+} // end of class DeadEndFillingSolver
@@ -0,0 +1,77 @@
+package mazeSolver;
+
+import maze.MazeGraph;
+
+/**
+ * Hierarchical path finding: routes over the nodes of a ClusterGraph, then refines the route
+ * into cells and draws them. The abstraction of the last maze is kept, so solving the same
+ * maze again, e.g. after moving the entrance or the exit, only repeats the search.
+ */
+public class HierarchicalSolver implements PathSolver {
+	/**
+	 * Default number of rows and columns of a cluster.
+	 */
+	public static final int CLUSTER_SIZE = 32;
+
+	/**
+	 * Instance Variables
+	 */
+	private final int clusterSize;
+	private boolean solved = false;
+	private int explored = 0;
+	private int[] path = null;
+	private MazeGraph lastMaze = null;
+	private ClusterGraph graph = null;
+
+	public HierarchicalSolver() {
+		this(CLUSTER_SIZE);
+	}
+
+	/**
+	 * @param clusterSize is the number of rows and columns of a cluster
+	 */
+	public HierarchicalSolver(int clusterSize) {
+		this.clusterSize = clusterSize;
+	}
+
+	@Override
+	public void solveMaze(MazeGraph maze) {
+		/** Implementation **/
+		if (maze != lastMaze) {
+			graph = new ClusterGraph(maze, clusterSize);
+			lastMaze = maze;
+		}
+		int[] route = graph.route(maze.entranceId(), maze.exitId());
+		explored = graph.settledNodes();
+		solved = route != null;
+		path = solved ? graph.refine(route) : null;
+		if (solved)
+			for (int id : path)
+				maze.drawFtPrt(id);
+	} // end of solveMaze()
+
+	/**
+	 * @return the abstraction of the last maze solved, to answer other routes or report changed walls
+	 */
+	public ClusterGraph graph() {
+		return graph;
+	} // end of graph()
+
+	@Override
+	public boolean isSolved() {
+		return solved;
+	} // end of isSolved()
+
+	/**
+	 * @return the number of nodes, rather than cells, settled by the search
+	 */
+	@Override
+	public int cellsExplored() {
+		return explored;
+	} // end of cellsExplored()
+
+	@Override
+	public int[] path() {
+		return path;
+	} // end of path()
+} // end of class HierarchicalSolver
@@ -0,0 +1,44 @@
+package mazeSolver;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of longs, used as a priority queue by packing the priority in the high
+ * bits and a cell or node id in the low bits, so queued entries need no objects.
+ */
+class LongMinHeap {
+	// heap[1..size], root at index 1
+	private long[] heap = new long[64];
+	private int size = 0;
+
+	boolean isEmpty() {
+		return size == 0;
+	} // end of isEmpty()
+
+	void clear() {
+		size = 0;
+	} // end of clear()
+
+	void push(long entry) {
+		if (++size == heap.length)
+			heap = Arrays.copyOf(heap, heap.length * 2);
+		int i = size;
+		for (; i > 1 && heap[i >> 1] > entry; i >>= 1)
+			heap[i] = heap[i >> 1];
+		heap[i] = entry;
+	} // end of push()
+
+	long pop() {
+		long top = heap[1], last = heap[size--];
+		int i = 1;
+		for (int child; (child = i << 1) <= size; i = child) {
+			if (child < size && heap[child + 1] < heap[child])
+				child++;
+			if (heap[child] >= last)
+				break;
+			heap[i] = heap[child];
+		}
+		heap[i] = last;
+		return top;
+	} // end of pop()
+} // end of class LongMinHeap
@@ -0,0 +1,27 @@
+package mazeSolver;
+
+import maze.Maze;
+import maze.MazeGraph;
+
+/**
+ * Interface of a maze solver working on cell ids through MazeGraph, so the same
+ * solver handles Maze objects and PackedMaze mazes too large for Cell objects.
+ */
+public interface MazeGraphSolver extends MazeSolver
+{
+	/**
+	 * Find the solution on given maze.
+	 * @param maze The maze to solve.
+	 */
+	public void solveMaze(MazeGraph maze);
+
+
+	/**
+	 * Maze implements MazeGraph, so Maze objects are solved the same way.
+	 * @param maze The maze to solve.
+	 */
+	@Override
+	public default void solveMaze(Maze maze) {
+		solveMaze((MazeGraph) maze);
+	}
+} // end of interface MazeGraphSolver
@@ -0,0 +1,32 @@
+package mazeSolver;
+
+/**
+ * Interface of a solver which also hands back the path it found, as cell ids, so the
+ * path can be checked directly with MazeGraph.validate(int[]) instead of being recovered
+ * from the foot prints.
+ */
+public interface PathSolver extends MazeGraphSolver
+{
+	/**
+	 * Use after solveMaze(maze), to get the solution found.
+	 * @return Cell ids from the entrance to the exit, both included, or null if not solved.
+	 */
+	public int[] path();
+
+
+	/**
+	 * Cells of a branch of a search tree.
+	 * @param parent parent[id] is the cell id was reached from, the root being its own parent.
+	 * @param id Last cell of the branch.
+	 * @return Cell ids from the root to id, both included.
+	 */
+	public static int[] pathTo(int[] parent, int id) {
+		int length = 1;
+		for (int cell = id; parent[cell] != cell; cell = parent[cell])
+			length++;
+		int[] path = new int[length];
+		for (int cell = id; length > 0; cell = parent[cell])
+			path[--length] = cell;
+		return path;
+	} // end of pathTo()
+} // end of interface PathSolver
@@ -0,0 +1,221 @@
+package mazeSolver;
+
+import maze.MazeGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Races several solvers on the same maze, one thread each, and keeps the first one which
+ * solves it. Every solver sees the maze through its own view, which records foot prints instead
+ * of drawing them and stops the solver, by throwing from its next move, once a winner is known.
+ * Only the foot prints of the winner reach the maze, so validate() checks the winner alone.
+ */
+public class PortfolioSolver implements PathSolver {
+	/**
+	 * Thrown inside a losing solver to stop it.
+	 */
+	private static class Cancelled extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		// no message, cause, suppression nor stack trace: it is only control flow
+		Cancelled() {
+			super(null, null, false, false);
+		}
+	}
+
+	/**
+	 * Instance Variables
+	 */
+	private final MazeGraphSolver[] engines;
+	private boolean solved = false;
+	private MazeGraphSolver winner = null;
+	private long winnerNanos = 0;
+
+	/**
+	 * Race breadth first search, A*, the wall follower and bidirectional breadth first search.
+	 */
+	public PortfolioSolver() {
+		this(new BfsSolver(), new AStarSolver(), new WallFollowerSolver(), new BiDirectionalBfsSolver());
+	}
+
+	/**
+	 * @param engines are the solvers to race, none of which may appear twice
+	 */
+	public PortfolioSolver(MazeGraphSolver... engines) {
+		if (engines.length == 0)
+			throw new IllegalArgumentException("PortfolioSolver needs at least one solver");
+		this.engines = engines.clone();
+	}
+
+	@Override
+	public void solveMaze(MazeGraph maze) {
+		/** Local Variable Instantiation **/
+		RecordingView[] views = new RecordingView[engines.length];
+		ExecutorService pool = Executors.newFixedThreadPool(engines.length);
+		CompletionService<Integer> race = new ExecutorCompletionService<>(pool);
+		/** Local Variable Initialisation **/
+		solved = false;
+		winner = null;
+		long start = System.nanoTime();
+		/** Implementation **/
+		try {
+			for (int i = 0; i < engines.length; i++) {
+				int engine = i;
+				views[i] = new RecordingView(maze);
+				race.submit(() -> {
+					engines[engine].solveMaze(views[engine]);
+					return engine;
+				});
+			}
+			// Take the solvers in the order they finish, until one of them has solved the maze
+			for (int i = 0; i < engines.length && winner == null; i++) {
+				try {
+					int engine = race.take().get();
+					if (engines[engine].isSolved()) {
+						winner = engines[engine];
+						winnerNanos = System.nanoTime() - start;
+						views[engine].replay();
+					}
+				} catch (ExecutionException e) {
+					// A solver which fails on this maze just loses the race
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			for (RecordingView view : views)
+				if (view != null)
+					view.cancelled = true;
+			pool.shutdown();
+			awaitUninterruptibly(pool);
+		}
+		solved = winner != null;
+	} // end of solveMaze()
+
+	/**
+	 * Wait until the losing solvers have noticed they are cancelled, so none of them is
+	 * still reading the maze when solveMaze() returns.
+	 */
+	private static void awaitUninterruptibly(ExecutorService pool) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				if (pool.awaitTermination(1, TimeUnit.MINUTES))
+					break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	} // end of awaitUninterruptibly()
+
+	/**
+	 * @return the solver which won the last race, or null if none of them solved the maze
+	 */
+	public MazeGraphSolver winner() {
+		return winner;
+	} // end of winner()
+
+	/**
+	 * @return the time from the start of the last race until the winner finished, in milliseconds
+	 */
+	public double winnerTime() {
+		return winnerNanos / 1e6;
+	} // end of winnerTime()
+
+	@Override
+	public boolean isSolved() {
+		return solved;
+	} // end of isSolved()
+
+	/**
+	 * @return the number of cells explored by the winner
+	 */
+	@Override
+	public int cellsExplored() {
+		return winner == null ? 0 : winner.cellsExplored();
+	} // end of cellsExplored()
+
+	/**
+	 * @return the path of the winner, or null if it does not give one
+	 */
+	@Override
+	public int[] path() {
+		return winner instanceof PathSolver ? ((PathSolver) winner).path() : null;
+	} // end of path()
+
+	/**
+	 * View of the maze for one solver: reads go to the maze, foot prints are recorded.
+	 */
+	private static class RecordingView implements MazeGraph {
+		private final MazeGraph maze;
+		private int[] prints = new int[256];
+		private int numPrints = 0;
+		volatile boolean cancelled = false;
+
+		RecordingView(MazeGraph maze) {
+			this.maze = maze;
+		}
+
+		/**
+		 * Draw the recorded foot prints on the maze.
+		 */
+		void replay() {
+			for (int i = 0; i < numPrints; i++)
+				maze.drawFtPrt(prints[i]);
+		}
+
+		public int passage(int id, int dir) {
+			if (cancelled)
+				throw new Cancelled();
+			return maze.passage(id, dir);
+		}
+
+		public int tunnelTo(int id) {
+			if (cancelled)
+				throw new Cancelled();
+			return maze.tunnelTo(id);
+		}
+
+		public void drawFtPrt(int id) {
+			if (numPrints == prints.length)
+				prints = Arrays.copyOf(prints, numPrints * 2);
+			prints[numPrints++] = id;
+		}
+
+		public int mazeType() {
+			return maze.mazeType();
+		}
+
+		public int rows() {
+			return maze.rows();
+		}
+
+		public int cols() {
+			return maze.cols();
+		}
+
+		public int numCells() {
+			return maze.numCells();
+		}
+
+		public int entranceId() {
+			return maze.entranceId();
+		}
+
+		public int exitId() {
+			return maze.exitId();
+		}
+
+		public int[] directions() {
+			return maze.directions();
+		}
+	}
+} // end of class PortfolioSolver
@@ -0,0 +1,189 @@
+package mazeSolver;
+
+import maze.MazeGraph;
+
+import java.util.Arrays;
+
+/**
+ * Index over a perfect maze answering route queries between any two cells without searching.
+ * A perfect maze, tunnels included, is a tree: the route between two cells goes up from each
+ * of them to their lowest common ancestor (LCA). The index roots the tree at cell 0, walks it
+ * once to get the parent and depth of every cell and its Euler tour, and finds the LCA as the
+ * shallowest cell of the tour between the two cells, with a sparse table of block minima.
+ * Distances take O(1) time plus a scan of two blocks; routes take time linear in their length.
+ */
+public class TreeDistanceOracle {
+	/**
+	 * Number of tour entries per block; ranges inside a block are scanned.
+	 */
+	private static final int BLOCK = 16;
+
+	/**
+	 * Instance Variables
+	 */
+	private final int numCells;
+	// parent[id] is the next cell from id towards cell 0, depth[id] its distance from cell 0
+	private final int[] parent, depth;
+	// Euler tour of the tree, and the position of the first visit of every cell in it
+	private final int[] tour, first;
+	// sparse[j][b] is the tour index of the shallowest cell in blocks b to b + 2^j - 1
+	private final int[][] sparse;
+
+	/**
+	 * Build the index.
+	 * @param maze is the perfect maze to index; its walls must not change afterwards
+	 * @throws IllegalArgumentException if the maze is not perfect
+	 */
+	public TreeDistanceOracle(MazeGraph maze) {
+		/** Local Variable Instantiation **/
+		numCells = maze.numCells();
+		parent = new int[numCells];
+		depth = new int[numCells];
+		first = new int[numCells];
+		tour = new int[2 * numCells - 1];
+		/** Implementation **/
+		int tourLength = walk(maze);
+		if (tourLength != tour.length)
+			throw new IllegalArgumentException("Maze is not perfect: not every cell can be reached");
+		// Level 0 holds the minimum of every block, level j combines two blocks of level j - 1
+		int numBlocks = (tour.length + BLOCK - 1) / BLOCK;
+		int levels = 32 - Integer.numberOfLeadingZeros(numBlocks);
+		sparse = new int[levels][];
+		sparse[0] = new int[numBlocks];
+		for (int b = 0; b < numBlocks; b++)
+			sparse[0][b] = scan(b * BLOCK, Math.min(tour.length, (b + 1) * BLOCK) - 1);
+		for (int j = 1; j < levels; j++) {
+			int[] below = sparse[j - 1];
+			int[] level = sparse[j] = new int[numBlocks - (1 << j) + 1];
+			for (int b = 0; b < level.length; b++)
+				level[b] = shallower(below[b], below[b + (1 << (j - 1))]);
+		}
+	} // end of TreeDistanceOracle()
+
+	/**
+	 * Depth first walk from cell 0, filling parent, depth, first and the tour.
+	 * @return the length of the tour
+	 */
+	private int walk(MazeGraph maze) {
+		/** Local Variable Instantiation **/
+		int[] directions = maze.directions();
+		int[] stack = new int[numCells];
+		// side[id] is the next side of id to look at, directions.length being its tunnel, and
+		// back[id] the side id was reached through, seen from id; the opposite of directions[k]
+		// is directions[(k + half) % directions.length] in both squareDir and hexDir
+		byte[] side = new byte[numCells], back = new byte[numCells];
+		int half = directions.length / 2;
+		/** Local Variable Initialisation **/
+		Arrays.fill(depth, -1);
+		back[0] = -1;
+		int top = 0, length = 0;
+		stack[top++] = 0;
+		parent[0] = 0;
+		depth[0] = 0;
+		first[0] = 0;
+		tour[length++] = 0;
+		/** Implementation **/
+		while (top > 0) {
+			int id = stack[top - 1], next = -1, k = -1;
+			while (next < 0 && side[id] <= directions.length) {
+				k = side[id]++;
+				// Only the edge used to arrive is skipped, so a wall and a tunnel both to the parent make a loop
+				next = k == back[id] ? -1 : k < directions.length ? maze.passage(id, directions[k]) : maze.tunnelTo(id);
+			}
+			if (next < 0) {
+				// Every child is done: back to the parent
+				top--;
+				if (top > 0)
+					tour[length++] = stack[top - 1];
+				continue;
+			}
+			if (depth[next] >= 0 || length == tour.length)
+				throw new IllegalArgumentException("Maze is not perfect: it has a loop");
+			parent[next] = id;
+			back[next] = (byte) (k < directions.length ? (k + half) % directions.length : k);
+			depth[next] = depth[id] + 1;
+			first[next] = length;
+			tour[length++] = next;
+			stack[top++] = next;
+		}
+		return length;
+	} // end of walk()
+
+	/**
+	 * @return the tour index of the shallowest cell of tour[from..to]
+	 */
+	private int scan(int from, int to) {
+		int best = from;
+		for (int i = from + 1; i <= to; i++)
+			if (depth[tour[i]] < depth[tour[best]])
+				best = i;
+		return best;
+	} // end of scan()
+
+	private int shallower(int i, int j) {
+		return depth[tour[j]] < depth[tour[i]] ? j : i;
+	} // end of shallower()
+
+	/**
+	 * Lowest common ancestor of two cells, i.e. the cell where the route between them turns back.
+	 */
+	public int lca(int a, int b) {
+		/** Local Variable Initialisation **/
+		int from = Math.min(first[a], first[b]), to = Math.max(first[a], first[b]);
+		int blockFrom = from / BLOCK, blockTo = to / BLOCK;
+		/** Implementation **/
+		if (blockFrom == blockTo)
+			return tour[scan(from, to)];
+		int best = shallower(scan(from, (blockFrom + 1) * BLOCK - 1), scan(blockTo * BLOCK, to));
+		if (blockTo - blockFrom > 1) {
+			// Two overlapping powers of two cover the whole blocks in between
+			int count = blockTo - blockFrom - 1, j = 31 - Integer.numberOfLeadingZeros(count);
+			best = shallower(best, shallower(sparse[j][blockFrom + 1], sparse[j][blockTo - (1 << j)]));
+		}
+		return tour[best];
+	} // end of lca()
+
+	/**
+	 * Number of moves between two cells, a move through a tunnel counting as one.
+	 */
+	public int distance(int a, int b) {
+		return depth[a] + depth[b] - 2 * depth[lca(a, b)];
+	} // end of distance()
+
+	/**
+	 * Route between two cells.
+	 * @return the cell ids from a to b, both included
+	 */
+	public int[] path(int a, int b) {
+		/** Local Variable Initialisation **/
+		int meet = lca(a, b), up = depth[a] - depth[meet];
+		int[] path = new int[up + depth[b] - depth[meet] + 1];
+		/** Implementation **/
+		// a climbs to the meeting cell at the front, b climbs to it from the back
+		for (int i = 0, id = a; i <= up; i++, id = parent[id])
+			path[i] = id;
+		for (int i = path.length - 1, id = b; i > up; i--, id = parent[id])
+			path[i] = id;
+		return path;
+	} // end of path()
+
+	/**
+	 * Draw the route between the entrance and the exit of the indexed maze.
+	 * @param maze is the maze the index was built over
+	 * @return the length of the route, in cells
+	 */
+	public int drawSolution(MazeGraph maze) {
+		/** Implementation **/
+		int[] path = path(maze.entranceId(), maze.exitId());
+		for (int id : path)
+			maze.drawFtPrt(id);
+		return path.length;
+	} // end of drawSolution()
+
+	/**
+	 * Distance of a cell from cell 0, the root of the index.
+	 */
+	public int depth(int id) {
+		return depth[id];
+	} // end of depth()
+} // end of class TreeDistanceOracle
@@ -1,147 +1,127 @@
 package mazeSolver;
 
 import maze.Maze;
-import maze.Cell;
-
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Random;
+import maze.MazeGraph;
 
 /**
  * Implements WallFollowerSolver
+ *
+ * Walks with one hand on the wall, remembering only the current cell and the side it was
+ * entered from, so it needs no memory besides a few ints whatever the size of the maze.
+ * At every cell the walker tries the sides in turn, starting next to the side it came in by
+ * and turning towards its hand, and leaves through the first open one.
+ *
+ * Tunnels: plain wall following never takes a tunnel, so on a tunnel maze it can go round
+ * its part of the maze forever without meeting the exit. When following tunnels, the tunnel
+ * of a cell is one more side of it, between its last and first direction. Every cell then
+ * has a fixed order of exits and the walk is a tour of the maze: in a perfect maze it passes
+ * every passage once each way, so it always reaches the exit. Either way the walk is periodic,
+ * and leaving the entrance through the same side a second time means the exit is unreachable.
  */
-
-public class WallFollowerSolver implements MazeSolver {
+public class WallFollowerSolver implements MazeGraphSolver {
 	/**
 	 * Instance Variables
 	 */
-	private List<Cell> visited = null;
+	private final boolean leftHand;
+	private final boolean throughTunnels;
 	private boolean solved = false;
+	private long steps = 0;
+
+	/**
+	 * Construct a left-hand wall follower which takes tunnels.
+	 */
+	public WallFollowerSolver() {
+		this(true, true);
+	}
+
+	/**
+	 * @param leftHand is whether the left hand stays on the wall, otherwise the right hand
+	 * @param throughTunnels is whether tunnels are taken, otherwise they are ignored
+	 */
+	public WallFollowerSolver(boolean leftHand, boolean throughTunnels) {
+		this.leftHand = leftHand;
+		this.throughTunnels = throughTunnels;
+	}
 
 	/**
 	 * Using the wall follower algorithm solve a particularly generated maze instance.
 	 * @param maze The maze to solve
 	 */
 	@Override
-	public void solveMaze(Maze maze) {
-		/** Variable Instantiation **/
-		visited = new ArrayList<Cell>();
+	public void solveMaze(MazeGraph maze) {
 		/** Variable Initialisation */
-		int direction, backtrack = 1;
-		Cell currentPosition = maze.entrance;
+		int[] directions = maze.directions();
+		// sides are the indices of directions, in counter-clockwise order, then the tunnel
+		int numSides = directions.length + 1, tunnel = directions.length;
+		// the right hand turns counter-clockwise, the left hand clockwise
+		int turn = leftHand ? numSides - 1 : 1;
+		int position = maze.entranceId(), exit = maze.exitId();
+		// Enter the maze from a border side of the entrance, i.e. from outside
+		int from = 0;
+		while (from < tunnel - 1 && side(maze, position, directions, from) >= -1)
+			from++;
+		int firstSide = -1;
+		solved = false;
+		steps = 0;
 		/** Implementation **/
-		for (;;) {
-			// Check whether we're visiting a new cell
-			if (!visited.contains(currentPosition)) {
-				maze.drawFtPrt(currentPosition);
-				visited.add(currentPosition);
-			}
-			//Checks to see if cell was a tunnel, if so tunnel through that bad boy!
-			if(currentPosition.tunnelTo !=null && !visited.contains(currentPosition.tunnelTo)){
-				currentPosition = currentPosition.tunnelTo;
-				maze.drawFtPrt(currentPosition);
-				visited.add(currentPosition);
-			}
-			// Check if we've reached the exit
-			if (currentPosition == maze.exit) {
-				solved = true;
-				break;
-			}
-			// Update current position or backtrack
-			if ((direction = nextDirection(maze, currentPosition)) != -1) {
-				System.out.printf("CurrR (%d), CurrC (%d), Next Direction (%d)\n", currentPosition.r, currentPosition.c, direction);
-				currentPosition = maze.map[currentPosition.r + Maze.deltaR[direction]][currentPosition.c + Maze.deltaC[direction]];
-				backtrack = 1;
-			} else if ((visited.size() - backtrack) != -1) {
-				System.out.printf("Backtrack\n");
-				currentPosition = visited.get(visited.size() - backtrack++);
-			} else {
-				System.out.printf("Standoff\n");
-				break;
+		maze.drawFtPrt(position);
+		while (position != exit) {
+			// Find the first open side, turning from the one we came in by, which is the last resort
+			int next = -1, out = from;
+			do {
+				out = (out + turn) % numSides;
+				next = side(maze, position, directions, out);
+			} while (next < 0 && out != from);
+			if (next < 0)
+				return;
+			if (position == maze.entranceId()) {
+				if (out == firstSide)
+					return;
+				if (firstSide < 0)
+					firstSide = out;
 			}
+			// Come into the next cell by the opposite side
+			from = out == tunnel ? tunnel : (out + tunnel / 2) % tunnel;
+			position = next;
+			steps++;
+			maze.drawFtPrt(position);
 		}
+		solved = true;
 	} // end of solveMaze()
 
 	/**
-	 * Determine the next unvisited direction in the maze to progress with finding the exit in the maze
-	 * @param maze is the constructed maze we're solving
-	 * @param position is our current position in the maze
-	 * @return the next valid direction if one exists
-	 */
-	private int nextDirection(Maze maze, Cell position) {
-		/** Local Variable Instantiation **/
-		Random rand = new Random();
-		/** Local Variable Initialisation **/
-		int[] directions = (maze.type == Maze.HEX ? new int[]{ Maze.WEST, Maze.NORTHWEST, Maze.EAST, Maze.NORTHEAST, Maze.SOUTHWEST, Maze.SOUTHEAST } : new int[]{ Maze.WEST, Maze.NORTH, Maze.EAST, Maze.SOUTH });
-		/** Implementation **/
-		for (int i = 0; i < directions.length; i++) {
-			System.out.printf("Checking Direction (%d) [Iteration %d]\n", directions[i], i);
-			if (checkDirection(maze, position, directions, i))
-				return directions[i];
-		}
-		return -1;
-	} // end of nextDirection()
-
-	/**
-	 * Check the validity of the next direction in the maze base off of our current position.
-	 * @param maze is the constructed maze we're solving
-	 * @param position is our current position in the maze
-	 * @param directions are the directions we're travelling within the maze
-	 * @param direction is the singular direction we're checking
-	 * @return the evaluation whether a given direction is valid
+	 * Cell reached through one side of a cell.
+	 * @param maze is the maze we're solving
+	 * @param position is the current cell
+	 * @param directions are the directions of the maze
+	 * @param side is an index of directions, or directions.length for the tunnel
+	 * @return the cell on the other side, -1 if the side is closed, or -2 if there is no cell at all
 	 */
-	private boolean checkDirection(Maze maze, Cell position, int[] directions, int direction) {
-		/** Implementation **/
-		if (wallIsDown(position, directions[direction]) && !isOutOfBounds(maze, position, directions[direction]) && isCellUnvisited(maze, position, directions[direction]))
-			return true;
-		return false;
-	} // end of checkDirection()
-
-	/**
-	 * Ensure a wall exists it's knocked down in the next direction we're heading.
-	 * @param cell is our current position in the maze
-	 * @param direction is our next position in the maze
-	 * @return the evaluation whether the wall is down
-	 */
-	private boolean wallIsDown(Cell cell, int direction) {
-		/** Implementation **/
-		// Ensure the wall exists and isn't present
-		if (cell.wall[direction] != null && cell.wall[direction].present == false)
-			return true;
-		return false;
-	} // end of wallIsDown()
-
-	/**
-	 * Ensure the next cell hasn't already been visited when solving the maze.
-	 * @param maze is the constructed maze we're solving
-	 * @param cell is our current position in the maze
-	 * @param direction is our next position in the maze
-	 * @return the unvisited status of the next maze
-	 */
-	private boolean isCellUnvisited(Maze maze, Cell cell, int direction) {
-		/** Local Variable Initialisation **/
-		Cell neighbour = maze.map[cell.r + Maze.deltaR[direction]][cell.c + Maze.deltaC[direction]];
+	private int side(MazeGraph maze, int position, int[] directions, int side) {
 		/** Implementation **/
-		return !visited.contains(neighbour);
-	} // end of isCellUnvisited()
+		if (side == directions.length)
+			return throughTunnels ? maze.tunnelTo(position) : -1;
+		int next = maze.passage(position, directions[side]);
+		if (next < 0 && isBorder(maze, position, directions[side]))
+			return -2;
+		return next;
+	} // end of side()
 
 	/**
-	 * Evaluate if the cell we would traverse to given a particular direction is outside the mazes boundaries.
-	 * @param maze is the maze we're constructing
-	 * @param cell is our current position in the maze
+	 * Evaluate if the side of a cell in the given direction is on the border of the maze.
+	 * @param maze is the maze we're solving
+	 * @param position is the current cell
 	 * @param direction is the direction we want to evaluate
 	 * @return whether the direction leads out of bounds
 	 */
-	private boolean isOutOfBounds(Maze maze, Cell cell, int direction) {
+	private boolean isBorder(MazeGraph maze, int position, int direction) {
 		/** Local Variable Initialisation **/
-		int deltaR = cell.r + Maze.deltaR[direction], deltaC = cell.c + Maze.deltaC[direction];
+		int cols = maze.cols(), r = position / cols, nr = r + Maze.deltaR[direction];
+		int c = position - r * cols + Maze.deltaC[direction];
 		/** Implementation **/
-		if (maze.type != maze.HEX && (deltaR >= maze.sizeR || deltaR < 0 || deltaC >= maze.sizeC || deltaC < 0))
-			return true;
-		else if (maze.type == maze.HEX && (deltaR >= maze.sizeR || deltaR < 0 || deltaC > ((deltaC + 1)/2 + deltaC) || deltaC < 0))
-			return true;
-		return false;
-	} // end of isOutOfBounds()
+		c += maze.colOffset(r) - maze.colOffset(nr);
+		return nr < 0 || nr >= maze.rows() || c < 0 || c >= cols;
+	} // end of isBorder()
 
 	/**
 	 * Check whether the maze has been solved.
@@ -154,11 +134,11 @@ public class WallFollowerSolver implements MazeSolver {
 
 	/**
 	 * Find the amount of cells explored in the maze.
-	 * @return the amount of explored cells
+	 * @return the number of cells entered, counting each visit, including the entrance
 	 */
 	@Override
 	public int cellsExplored() {
-		return visited == null ? 0 : visited.size();
+		return (int) Math.min(Integer.MAX_VALUE, steps + 1);
 	} // end of cellsExplored()
 
 } // end of class WallFollowerSolver